@@ -6,8 +6,13 @@ import com.atziluth.sephirah.chesed.api.*;
 import com.atziluth.sephirah.chesed.model.*;
 import com.atziluth.sephirah.chesed.sorting.*;
 import com.atziluth.sephirah.chesed.factory.UmaFactory;
+import com.atziluth.sephirah.chesed.searching.AttributeBitmapIndex;
+import com.atziluth.sephirah.chesed.searching.NameTrie;
+import com.atziluth.sephirah.chesed.searching.RosterSnapshot;
+import com.atziluth.sephirah.chesed.searching.StatRangeIndex;
 import com.atziluth.sephirah.chesed.demo.*;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,6 +25,7 @@ public class ChesedSephirah implements Sephirah {
     private CharacterService characterService;
     private UmamusumeSorter sorter;
     private UmapyoiCharacterManager characterManager;
+    private IncrementalRefreshJob refreshJob;
     
     @Override
     public String getName() {
@@ -48,6 +54,7 @@ public class ChesedSephirah implements Sephirah {
             characterService = new CharacterService(apiConfig);
             sorter = new UmamusumeSorter();
             characterManager = new UmapyoiCharacterManager(characterService);
+            refreshJob = new IncrementalRefreshJob(characterService);
             
             ConsoleUI.finishLoading();
             ConsoleUI.displaySuccess("Chesed module initialized successfully");
@@ -76,7 +83,7 @@ public class ChesedSephirah implements Sephirah {
             ConsoleUI.clearScreen();
             displayChesedMenu();
             
-            int choice = ConsoleUI.promptInt("Select option (1-9)");
+            int choice = ConsoleUI.promptInt("Select option (1-10)");
             
             switch (choice) {
                 case 1:
@@ -104,6 +111,9 @@ public class ChesedSephirah implements Sephirah {
                     moduleStatistics();
                     break;
                 case 9:
+                    refreshChangedCharacters();
+                    break;
+                case 10:
                     inChesed = false;
                     ConsoleUI.displaySuccess("Returning to main menu");
                     break;
@@ -136,6 +146,7 @@ public class ChesedSephirah implements Sephirah {
             "⭐ View Popular Characters",
             "🎂 View Character Birthdays",
             "📊 Module Statistics",
+            "🔄 Refresh Changed Characters",
             "⬅️  Return to Main Menu"
         };
         
@@ -210,6 +221,7 @@ public class ChesedSephirah implements Sephirah {
             ConsoleUI.displayError("Name cannot be empty");
             return;
         }
+        name = pickNameSuggestion(name);
         
         try {
             ConsoleUI.displayLoading("Searching for '" + name + "' across all characters...");
@@ -272,6 +284,39 @@ public class ChesedSephirah implements Sephirah {
         }
     }
 
+    /**
+     * Offer known names starting with the input before running a full search, so a partial
+     * or half-remembered name does not cost a scan of every character.
+     * @return the chosen suggestion, or the input unchanged
+     */
+    private String pickNameSuggestion(String typed) {
+        characterService.warmNameSuggestions();
+        List<NameTrie.Completion> suggestions = characterService.suggestNames(typed, 5);
+        if (suggestions.isEmpty()) {
+            return typed;
+        }
+        for (NameTrie.Completion suggestion : suggestions) {
+            if (suggestion.getName().equalsIgnoreCase(typed)) {
+                return typed;
+            }
+        }
+        
+        ConsoleUI.displayInfo("Did you mean:");
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.printf("  %d. %s%n", i + 1, suggestions.get(i).getName());
+        }
+        String choice = ConsoleUI.prompt("Enter number to pick a name, or press Enter to search for '" + typed + "'");
+        try {
+            int index = Integer.parseInt(choice);
+            if (index >= 1 && index <= suggestions.size()) {
+                return suggestions.get(index - 1).getName();
+            }
+        } catch (NumberFormatException e) {
+            // Keep the typed name
+        }
+        return typed;
+    }
+
     private void searchByPopularity() {
         ConsoleUI.displaySubHeader("SEARCH BY POPULARITY");
 
@@ -325,23 +370,9 @@ public class ChesedSephirah implements Sephirah {
             try {
                 ConsoleUI.displayLoading("Searching for " + rarity + " characters across all 400+ characters...");
                 
-                // Search all characters (1001-1400) and filter by rarity
-                List<UmapyoiCharacter> filtered = new ArrayList<>();
-                for (int characterId = 1001; characterId <= 1400; characterId++) {
-                    try {
-                        UmapyoiCharacter character = characterService.getCharacterById(characterId);
-                        Umamusume uma = character.toDomainModel();
-                        if (uma.getRarity().name().equals(rarity)) {
-                            filtered.add(character);
-                        }
-                        Thread.sleep(50);
-                    } catch (IOException e) {
-                        // Character might not exist, skip
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
+                // Rarity bitmap over the whole roster; only the matches are fetched
+                List<UmapyoiCharacter> filtered = characterService.findByAttributes(
+                    new AttributeBitmapIndex.Filter().rarity(Umamusume.Rarity.valueOf(rarity)));
                 
                 ConsoleUI.finishLoading();
                 
@@ -417,25 +448,24 @@ public class ChesedSephirah implements Sephirah {
         
         if (trackType != null) {
             try {
-                ConsoleUI.displayLoading("Fetching all characters for " + trackType + " search...");
+                ConsoleUI.displayLoading("Filtering characters with " + trackType + " aptitude A or better...");
                 
-                List<UmapyoiCharacter> characters = new ArrayList<>();
-                for (int characterId = 1001; characterId <= 1400; characterId++) {
-                    try {
-                        characters.add(characterService.getCharacterById(characterId));
-                        Thread.sleep(50);
-                    } catch (IOException e) {
-                        // Character might not exist, skip
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
+                AttributeBitmapIndex.Aptitude aptitude = AttributeBitmapIndex.Aptitude.valueOf(trackType.toUpperCase());
+                AttributeBitmapIndex.Filter filter = new AttributeBitmapIndex.Filter()
+                    .aptitudeAtLeast(aptitude, TrackProficiency.Grade.A);
+                List<UmapyoiCharacter> characters = characterService.findByAttributes(filter);
+                // Aptitudes are only known for characters enriched from GameTora
+                int graded = characterService.countByAttributes(
+                    new AttributeBitmapIndex.Filter().aptitudeAtLeast(aptitude, TrackProficiency.Grade.G));
                 
                 ConsoleUI.finishLoading();
-                ConsoleUI.displayInfo("Showing all " + characters.size() + " characters (track proficiency filtering coming soon)");
+                ConsoleUI.displayInfo(trackType + " aptitude is known for " + graded + " enriched characters");
                 
-                displaySearchResults(characters, "All Characters");
+                if (!characters.isEmpty()) {
+                    displaySearchResults(characters, trackType + " Characters (" + characters.size() + " found)");
+                } else {
+                    ConsoleUI.displayError("No " + trackType + " characters found among enriched characters");
+                }
                 
             } catch (Exception e) {
                 handleApiError(new IOException(e));
@@ -446,6 +476,28 @@ public class ChesedSephirah implements Sephirah {
     private void advancedSearch() {
         ConsoleUI.displaySubHeader("ADVANCED SEARCH");
         
+        System.out.println("""
+            Type a query, for example:
+              rarity:SSR speed>=100 surface:turf>=A name~"gold"
+            Fields: rarity type speed stamina power guts intelligence height
+                    surface:turf|dirt distance:short|mile|medium|long
+                    strategy:front|pace|late|end name~ name:
+            """);
+        
+        String queryText = ConsoleUI.prompt("Query (or press Enter for a guided search)");
+        if (!queryText.isEmpty()) {
+            try {
+                ConsoleUI.displayInfo("Plan: " + characterService.planQuery(queryText).explain());
+                ConsoleUI.displayLoading("Running query");
+                List<UmapyoiCharacter> results = characterManager.advancedSearch(queryText);
+                ConsoleUI.finishLoading();
+                showAdvancedSearchResults(results);
+            } catch (IllegalArgumentException e) {
+                ConsoleUI.displayError("Invalid query: " + e.getMessage());
+            }
+            return;
+        }
+        
         System.out.println("""
             Build a custom search query:
             (Leave blank to skip any field)
@@ -466,6 +518,20 @@ public class ChesedSephirah implements Sephirah {
             return;
         }
         
+        StatRangeIndex.Query bounds = new StatRangeIndex.Query();
+        if (minHeight != null) bounds.atLeast(StatRangeIndex.Dimension.HEIGHT, minHeight);
+        if (maxHeight != null) bounds.atMost(StatRangeIndex.Dimension.HEIGHT, maxHeight);
+        try {
+            String minSpeedStr = ConsoleUI.prompt("Minimum speed");
+            if (!minSpeedStr.isEmpty()) bounds.atLeast(StatRangeIndex.Dimension.SPEED, Integer.parseInt(minSpeedStr));
+            
+            String minStaminaStr = ConsoleUI.prompt("Minimum stamina");
+            if (!minStaminaStr.isEmpty()) bounds.atLeast(StatRangeIndex.Dimension.STAMINA, Integer.parseInt(minStaminaStr));
+        } catch (NumberFormatException e) {
+            ConsoleUI.displayError("Invalid stat value");
+            return;
+        }
+        
         try {
             ConsoleUI.displayLoading("Performing advanced search");
             
@@ -473,40 +539,43 @@ public class ChesedSephirah implements Sephirah {
             List<UmapyoiCharacter> results = characterManager.advancedSearch(
                 name.isEmpty() ? null : name,
                 rarity.isEmpty() ? null : rarity,
-                minHeight, maxHeight
+                bounds
             );
             
             ConsoleUI.finishLoading();
-            
-            if (!results.isEmpty()) {
-                displaySearchResults(results, "Advanced Search Results");
-                
-                // Sort options
-                ConsoleUI.displaySubHeader("SORT RESULTS");
-                System.out.println("""
-                    How would you like to sort the results?
-                    1. By Name (A-Z)
-                    2. By Height (Tallest First)
-                    3. By Estimated Stats (Highest First)
-                    4. Don't sort
-                    """);
-                
-                int sortChoice = ConsoleUI.promptInt("Select sort option (1-4)");
-                
-                if (sortChoice >= 1 && sortChoice <= 3) {
-                    results = characterManager.sortCharacters(results, sortChoice);
-                    displaySearchResults(results, "Sorted Results");
-                }
-                
-            } else {
-                ConsoleUI.displayError("No characters match your search criteria");
-            }
+            showAdvancedSearchResults(results);
             
         } catch (IOException e) {
             handleApiError(e);
         }
     }
     
+    private void showAdvancedSearchResults(List<UmapyoiCharacter> results) {
+        if (!results.isEmpty()) {
+            displaySearchResults(results, "Advanced Search Results");
+            
+            // Sort options
+            ConsoleUI.displaySubHeader("SORT RESULTS");
+            System.out.println("""
+                How would you like to sort the results?
+                1. By Name (A-Z)
+                2. By Height (Tallest First)
+                3. By Estimated Stats (Highest First)
+                4. Don't sort
+                """);
+            
+            int sortChoice = ConsoleUI.promptInt("Select sort option (1-4)");
+            
+            if (sortChoice >= 1 && sortChoice <= 3) {
+                results = characterManager.sortCharacters(results, sortChoice);
+                displaySearchResults(results, "Sorted Results");
+            }
+            
+        } else {
+            ConsoleUI.displayError("No characters match your search criteria");
+        }
+    }
+    
     private void viewAllCharacters() {
         try {
             ConsoleUI.displayLoading("Fetching all characters");
@@ -770,7 +839,18 @@ public class ChesedSephirah implements Sephirah {
                 System.out.println("Sorted by Total Stats (Highest to Lowest):");
                 sorted.forEach(u -> System.out.printf("  %s: %d total stats%n", 
                     u.getName(), u.getTotalStats()));
-                
+
+                // Top-K over every fetched character, no full sort
+                ConsoleUI.displaySubHeader("TOP-K SELECTION");
+                List<Umamusume> fastest = sorter.topK(
+                    characters.stream().map(UmapyoiCharacter::toDomainModel).toList(),
+                    3,
+                    Comparators.bySpeed()
+                );
+                System.out.println("Top 3 by Speed of " + characters.size() + " characters:");
+                fastest.forEach(u -> System.out.printf("  %s: %d speed%n",
+                    u.getName(), u.getStats().getSpeed()));
+
                 // Benchmark
                 ConsoleUI.displaySubHeader("PERFORMANCE BENCHMARK");
                 sorter.benchmarkAll(umas);
@@ -860,6 +940,9 @@ public class ChesedSephirah implements Sephirah {
             ConsoleUI.displayLoading("Fetching all characters (this may take a moment)...");
             List<UmapyoiCharacter> characters = new ArrayList<>();
             for (int characterId = 1001; characterId <= 1400; characterId++) {
+                if (characterService.isKnownAbsent(characterId)) {
+                    continue;
+                }
                 try {
                     characters.add(characterService.getCharacterById(characterId));
                     Thread.sleep(50);
@@ -944,6 +1027,79 @@ public class ChesedSephirah implements Sephirah {
             • Algorithm visualization
             • Design pattern examples
             """);
+        
+        RosterSnapshot roster = characterManager.getRoster();
+        System.out.printf("Roster snapshot: v%d, %d characters fetched%n%n", roster.getVersion(), roster.size());
+        
+        displayScraperMetrics();
+    }
+    
+    private void refreshChangedCharacters() {
+        ConsoleUI.displayHeader("REFRESH CHANGED CHARACTERS");
+        
+        long lastRunAt = refreshJob.getLastRunAt();
+        if (lastRunAt > 0) {
+            ConsoleUI.displayInfo("Last refresh: " + Instant.ofEpochMilli(lastRunAt));
+        } else {
+            ConsoleUI.displayInfo("First refresh - every character is fetched and scraped once");
+        }
+        
+        try {
+            ConsoleUI.displayLoading("Checking characters for upstream changes");
+            IncrementalRefreshJob.RefreshReport report = refreshJob.runAll();
+            ConsoleUI.finishLoading();
+            
+            ConsoleUI.displaySuccess(String.format("%d checked, %d unchanged, %d re-fetched, %d re-scraped, %d failed",
+                report.getChecked(), report.getUnchanged(), report.getRefetched(),
+                report.getRescraped(), report.getFailed()));
+            List<String> changes = report.getChanges();
+            if (!changes.isEmpty()) {
+                ConsoleUI.displaySubHeader("CHANGES");
+                changes.stream().limit(20).forEach(change -> System.out.println("  • " + change));
+                if (changes.size() > 20) {
+                    System.out.printf("  ... and %d more (see %s)%n",
+                        changes.size() - 20, IncrementalRefreshJob.DEFAULT_CHANGE_LOG_PATH);
+                }
+            }
+        } catch (IOException e) {
+            handleApiError(e);
+        }
+        
+        ConsoleUI.pressEnterToContinue();
+    }
+    
+    private void displayScraperMetrics() {
+        ScraperMetrics metrics = UmamusumeWikiScraper.getMetrics();
+        ConsoleUI.displaySubHeader("GameTora Scraper (this session)");
+        
+        System.out.printf("• Pages downloaded: %d (%,d KB)%n",
+            metrics.getPagesDownloaded(), metrics.getBytesDownloaded() / 1024);
+        System.out.printf("• JSON path rate: %.1f%% (stream %d, DOM %d, HTML fallback %d)%n",
+            metrics.getJsonPathRate(),
+            metrics.getPathCount(ScraperMetrics.ExtractionPath.JSON_STREAM),
+            metrics.getPathCount(ScraperMetrics.ExtractionPath.JSON_DOM),
+            metrics.getPathCount(ScraperMetrics.ExtractionPath.HTML));
+        printLatency("Fetch", metrics.getFetchLatency());
+        printLatency("Parse", metrics.getParseLatency());
+        printLatency("Extract", metrics.getExtractLatency());
+        
+        StringBuilder failures = new StringBuilder("• Failures:");
+        for (ScraperMetrics.Failure failure : ScraperMetrics.Failure.values()) {
+            failures.append(' ').append(failure).append('=').append(metrics.getFailureCount(failure));
+        }
+        System.out.println(failures);
+        
+        if (metrics.getFailureCount(ScraperMetrics.Failure.LAYOUT_CHANGE) > 0
+            || metrics.getPathCount(ScraperMetrics.ExtractionPath.HTML) > 0) {
+            ConsoleUI.displayInfo("HTML fallback or layout failures seen - GameTora's page structure may have changed");
+        }
+    }
+    
+    private void printLatency(String label, ScraperMetrics.LatencyHistogram histogram) {
+        System.out.printf("• %s latency: n=%d mean=%.1fms p50<%dms p90<%dms p99<%dms max=%dms%n",
+            label, histogram.getCount(), histogram.getMeanMillis(),
+            histogram.percentile(0.50), histogram.percentile(0.90), histogram.percentile(0.99),
+            histogram.getMaxMillis());
     }
     
     // ==================== HELPER METHODS ====================
@@ -992,12 +1148,83 @@ public class ChesedSephirah implements Sephirah {
     }
     
     private void sortWithSimilar(UmapyoiCharacter character) {
-        ConsoleUI.displayInfo("Finding similar characters...");
-        // Implementation would compare by type, rarity, stats
+        try {
+            ConsoleUI.displayLoading("Finding similar characters");
+            List<UmapyoiCharacter> similar = characterService.findSimilar(character.getGameId(), 5);
+            ConsoleUI.finishLoading();
+
+            if (similar.isEmpty()) {
+                ConsoleUI.displayInfo("No other characters to compare with yet");
+                return;
+            }
+
+            ConsoleUI.displaySubHeader("MOST SIMILAR TO " + truncate(character.getNameEnglish(), 40).toUpperCase());
+            for (int i = 0; i < similar.size(); i++) {
+                UmapyoiCharacter other = similar.get(i);
+                System.out.printf("%d. %s | ID: %d | Distance: %.2f%n",
+                    i + 1,
+                    other.getNameEnglish(),
+                    other.getGameId(),
+                    characterService.similarityDistance(character.getGameId(), other.getGameId())
+                );
+            }
+            promptForFullInfo(similar);
+        } catch (IOException e) {
+            handleApiError(e);
+        }
     }
-    
+
     private void compareCharacters(UmapyoiCharacter character1) {
-        ConsoleUI.displayInfo("Compare feature coming soon!");
+        int otherId = ConsoleUI.promptInt("Enter the ID of the character to compare with");
+
+        try {
+            ConsoleUI.displayLoading("Fetching character " + otherId);
+            UmapyoiCharacter character2 = characterService.getCharacterById(otherId);
+            ConsoleUI.finishLoading();
+            if (character2 == null) {
+                ConsoleUI.displayInfo("No character found with this ID");
+                return;
+            }
+
+            // Show the models the similarity index was built from, not fresh estimates
+            RosterSnapshot roster = characterService.getRoster();
+            Umamusume first = indexedModel(roster, character1);
+            Umamusume second = indexedModel(roster, character2);
+            boolean estimated = first == null || second == null
+                || roster.isEstimated(character1.getGameId()) || roster.isEstimated(character2.getGameId());
+            if (first == null) {
+                first = character1.toDomainModel();
+            }
+            if (second == null) {
+                second = character2.toDomainModel();
+            }
+
+            ConsoleUI.displaySubHeader(estimated ? "COMPARISON (estimated from API data)" : "COMPARISON");
+            System.out.printf("%-14s %-20s %-20s%n", "", truncate(first.getName(), 20), truncate(second.getName(), 20));
+            System.out.printf("%-14s %-20s %-20s%n", "Rarity", first.getRarity(), second.getRarity());
+            System.out.printf("%-14s %-20s %-20s%n", "Type", first.getType().getDescription(), second.getType().getDescription());
+            System.out.printf("%-14s %-20d %-20d%n", "Height (cm)", character1.getHeight(), character2.getHeight());
+            System.out.printf("%-14s %-20d %-20d%n", "Speed", first.getStats().getSpeed(), second.getStats().getSpeed());
+            System.out.printf("%-14s %-20d %-20d%n", "Stamina", first.getStats().getStamina(), second.getStats().getStamina());
+            System.out.printf("%-14s %-20d %-20d%n", "Power", first.getStats().getPower(), second.getStats().getPower());
+            System.out.printf("%-14s %-20d %-20d%n", "Guts", first.getStats().getGuts(), second.getStats().getGuts());
+            System.out.printf("%-14s %-20d %-20d%n", "Intelligence", first.getStats().getIntelligence(), second.getStats().getIntelligence());
+            System.out.printf("%-14s %-20d %-20d%n", "Total", first.getTotalStats(), second.getTotalStats());
+
+            double distance = characterService.similarityDistance(character1.getGameId(), character2.getGameId());
+            if (!Double.isNaN(distance)) {
+                ConsoleUI.displayInfo(String.format("Profile distance: %.2f (0 = identical)", distance));
+            }
+        } catch (IOException e) {
+            handleApiError(e);
+        }
+    }
+    
+    /**
+     * @return the model the roster holds for a character, or null if it has not been published yet
+     */
+    private Umamusume indexedModel(RosterSnapshot roster, UmapyoiCharacter character) {
+        return character != null ? roster.getModel(character.getGameId()) : null;
     }
     
     private String truncate(String text, int maxLength) {
@@ -2,7 +2,10 @@ package com.atziluth.sephirah.chesed;
 
 import com.atziluth.sephirah.chesed.api.*;
 import com.atziluth.sephirah.chesed.model.*;
+import com.atziluth.sephirah.chesed.searching.RosterSnapshot;
+import com.atziluth.sephirah.chesed.searching.StatRangeIndex;
 import com.atziluth.sephirah.chesed.sorting.Comparators;
+import com.atziluth.sephirah.chesed.util.IntObjectStore;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,26 +15,43 @@ import java.util.stream.Collectors;
  */
 public class UmapyoiCharacterManager {
     private final CharacterService characterService;
-    private final Map<Integer, UmapyoiCharacter> characterCache;
+    // Keyed by game ID; lock-free reads, safe to fill from async fetch threads
+    private final IntObjectStore<UmapyoiCharacter> characterCache;
     
     public UmapyoiCharacterManager(CharacterService characterService) {
         this.characterService = characterService;
-        this.characterCache = new HashMap<>();
+        this.characterCache = new IntObjectStore<>();
     }
     
     public List<UmapyoiCharacter> advancedSearch(String name, String rarity, 
                                                 Integer minHeight, Integer maxHeight) 
             throws IOException {
+        StatRangeIndex.Query bounds = new StatRangeIndex.Query();
+        if (minHeight != null) {
+            bounds.atLeast(StatRangeIndex.Dimension.HEIGHT, minHeight);
+        }
+        if (maxHeight != null) {
+            bounds.atMost(StatRangeIndex.Dimension.HEIGHT, maxHeight);
+        }
+        return advancedSearch(name, rarity, bounds);
+    }
+    
+    /**
+     * Search the popular characters by name, rarity and stat/height bounds.
+     * The bounds are answered by the service's stat index; name and rarity filter what is left.
+     */
+    public List<UmapyoiCharacter> advancedSearch(String name, String rarity, StatRangeIndex.Query bounds)
+            throws IOException {
         
         // Get popular characters as base
-        List<UmapyoiCharacter> characters = characterService.getPopularCharacters();
+        List<UmapyoiCharacter> characters = characterService.findByStats(bounds,
+            characterService.getPopularCharacters());
         
         return characters.stream()
             .filter(c -> {
                 // Filter by name
                 if (name != null && !name.isEmpty()) {
-                    if (!c.getNameEnglish().toLowerCase().contains(name.toLowerCase()) &&
-                        !c.getNameJapanese().contains(name)) {
+                    if (!characterService.nameMatches(c.getGameId(), name)) {
                         return false;
                     }
                 }
@@ -44,19 +64,20 @@ public class UmapyoiCharacterManager {
                     }
                 }
                 
-                // Filter by height
-                if (minHeight != null && c.getHeight() < minHeight) {
-                    return false;
-                }
-                if (maxHeight != null && c.getHeight() > maxHeight) {
-                    return false;
-                }
-                
                 return true;
             })
             .collect(Collectors.toList());
     }
     
+    /**
+     * Search with the query language, e.g. {@code rarity:SSR speed>=100 name~"gold"}
+     * (see {@link com.atziluth.sephirah.chesed.searching.CharacterQuery}).
+     * @throws IllegalArgumentException if the query cannot be parsed
+     */
+    public List<UmapyoiCharacter> advancedSearch(String query) {
+        return characterService.searchByQuery(query);
+    }
+    
     public List<UmapyoiCharacter> sortCharacters(List<UmapyoiCharacter> characters, int sortType) {
         List<UmapyoiCharacter> sorted = new ArrayList<>(characters);
         
@@ -86,8 +107,19 @@ public class UmapyoiCharacterManager {
         characterCache.put(character.getGameId(), character);
     }
     
+    /**
+     * @return a character cached here or in the service's current roster snapshot
+     */
     public UmapyoiCharacter getCachedCharacter(int id) {
-        return characterCache.get(id);
+        UmapyoiCharacter character = characterCache.get(id);
+        return character != null ? character : characterService.getRoster().get(id);
+    }
+    
+    /**
+     * Consistent view of every character fetched so far; safe to read from any thread
+     */
+    public RosterSnapshot getRoster() {
+        return characterService.getRoster();
     }
     
     public void clearCache() {
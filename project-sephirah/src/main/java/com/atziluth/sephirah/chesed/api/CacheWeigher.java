@@ -0,0 +1,16 @@
+package com.atziluth.sephirah.chesed.api;
+
+/**
+ * Strategy for estimating how many heap bytes a cached value retains.
+ * LocalCache weighs each entry once, at insert time, and uses the weight
+ * to enforce its memory budget and to report bytes per namespace.
+ */
+@FunctionalInterface
+public interface CacheWeigher {
+
+    /**
+     * @param value the cached object (never null)
+     * @return estimated retained size in bytes
+     */
+    long weigh(Object value);
+}
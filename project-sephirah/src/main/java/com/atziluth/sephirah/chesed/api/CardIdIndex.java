@@ -0,0 +1,184 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Persistent map from base character IDs (Umapyoi game_id, e.g. 1052) to the GameTora card
+ * pages known for them (card IDs such as 105201 and URL slugs).
+ * Learned from GameTora listing bundles and from successfully scraped pages, so enrichment
+ * can request the right card page directly instead of guessing "base ID + 01".
+ * The index is a small JSON file; writes are explicit so bulk learning costs one save.
+ */
+public class CardIdIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CardIdIndex.class);
+
+    public static final String DEFAULT_PATH = "data/cache/card-id-index.json";
+
+    /** Card pages known for one base ID. Public fields so Jackson can persist it as-is. */
+    public static class Entry {
+        /** Card IDs in ascending order; the lowest is the character's default card */
+        public TreeSet<Long> cardIds = new TreeSet<>();
+        public LinkedHashSet<String> slugs = new LinkedHashSet<>();
+    }
+
+    private final Path file;
+    private final ObjectMapper mapper;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private boolean dirty = false;
+
+    public CardIdIndex() {
+        this(Paths.get(DEFAULT_PATH));
+    }
+
+    public CardIdIndex(Path file) {
+        this.file = file;
+        this.mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        load();
+    }
+
+    /**
+     * Derive the base ID of a card: GameTora card IDs are the base ID plus a two-digit suffix
+     * @return base ID, or -1 if it cannot be derived
+     */
+    static long baseIdOf(long cardId) {
+        return cardId >= 100000 && cardId <= 999999 ? cardId / 100 : -1;
+    }
+
+    /**
+     * Record a card page for a base ID without writing the file.
+     * @param cardId card ID, or a non-positive value if only the slug is known
+     * @param slug URL slug, or null
+     * @return true if the index changed
+     */
+    public synchronized boolean record(long baseId, long cardId, String slug) {
+        if (baseId <= 0 || (cardId <= 0 && (slug == null || slug.isEmpty()))) {
+            return false;
+        }
+        Entry entry = entries.computeIfAbsent(baseId, id -> new Entry());
+        boolean changed = false;
+        if (cardId > 0) {
+            changed |= entry.cardIds.add(cardId);
+        }
+        if (slug != null && !slug.isEmpty()) {
+            changed |= entry.slugs.add(slug);
+        }
+        dirty |= changed;
+        return changed;
+    }
+
+    /**
+     * Record a card page and persist the index if it changed
+     */
+    public boolean learn(long baseId, long cardId, String slug) {
+        boolean changed = record(baseId, cardId, slug);
+        if (changed) {
+            save();
+        }
+        return changed;
+    }
+
+    /**
+     * @return the default (lowest) card ID for a base ID, or -1 if none is known
+     */
+    public synchronized long defaultCardId(long baseId) {
+        Entry entry = entries.get(baseId);
+        return entry != null && !entry.cardIds.isEmpty() ? entry.cardIds.first() : -1;
+    }
+
+    /**
+     * @return the first slug learned for a base ID, or null if none is known
+     */
+    public synchronized String slug(long baseId) {
+        Entry entry = entries.get(baseId);
+        return entry != null && !entry.slugs.isEmpty() ? entry.slugs.iterator().next() : null;
+    }
+
+    /**
+     * @return copy of all card IDs known for a base ID
+     */
+    public synchronized Set<Long> cardIds(long baseId) {
+        Entry entry = entries.get(baseId);
+        return entry != null ? new TreeSet<>(entry.cardIds) : new TreeSet<>();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        dirty = true;
+        save();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        int cards = 0;
+        for (Entry entry : entries.values()) {
+            cards += entry.cardIds.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("baseIds", entries.size());
+        stats.put("cardIds", cards);
+        stats.put("file", file.toString());
+        return stats;
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Map<Long, Entry> stored = mapper.readValue(file.toFile(), new TypeReference<Map<Long, Entry>>() {});
+            if (stored != null) {
+                entries.putAll(stored);
+            }
+            logger.info("Loaded GameTora card IDs for {} characters from {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable card ID index {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Write pending changes to a temp file and move it into place
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            mapper.writeValue(temp.toFile(), new TreeMap<>(entries));
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+        } catch (IOException e) {
+            logger.warn("Failed to persist card ID index {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,16 @@ import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
 import com.atziluth.sephirah.chesed.model.CharacterImages;
 import com.atziluth.sephirah.chesed.model.CharacterBirthday;
 import com.atziluth.sephirah.chesed.model.Umamusume;
+import com.atziluth.sephirah.chesed.searching.AttributeBitmapIndex;
+import com.atziluth.sephirah.chesed.searching.CharacterQuery;
+import com.atziluth.sephirah.chesed.searching.CharacterSearchIndex;
+import com.atziluth.sephirah.chesed.searching.NameAutocomplete;
+import com.atziluth.sephirah.chesed.searching.NameTrie;
+import com.atziluth.sephirah.chesed.searching.QueryPlanner;
+import com.atziluth.sephirah.chesed.searching.RosterPublisher;
+import com.atziluth.sephirah.chesed.searching.RosterSnapshot;
+import com.atziluth.sephirah.chesed.searching.SimilarityIndex;
+import com.atziluth.sephirah.chesed.searching.StatRangeIndex;
 import com.fasterxml.jackson.core.type.TypeReference;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -26,16 +36,68 @@ public class CharacterService {
     private final ApiConfig config;
     private final LocalCache cache;
     private final ExecutorService executor;
+    private final ScrapeEngine scrapeEngine;
+    private final GameToraBundleImporter bundleImporter;
+    private final CharacterSearchIndex searchIndex;
+    private final NameAutocomplete nameAutocomplete;
+    private final StatRangeIndex statIndex;
+    private final AttributeBitmapIndex attributeIndex;
+    private final SimilarityIndex similarityIndex;
+    private final RosterPublisher rosterPublisher;
+    private final QueryPlanner queryPlanner;
+    private volatile boolean rosterIndexed = false;
+    /** IDs whose indexes already hold GameTora data; estimates must not overwrite them */
+    private final Set<Integer> enrichedIds = ConcurrentHashMap.newKeySet();
     
     // Rate limiting configuration
     private static final int MAX_REQUESTS_PER_SECOND = 10;
     private static final int REQUEST_DELAY_MS = 1000 / MAX_REQUESTS_PER_SECOND;
     
+    // Int-keyed cache namespaces (lookups by ID build no String keys)
+    private static final String CHARACTER_NAMESPACE = "character";
+    private static final String IMAGES_NAMESPACE = "character_images";
+    
+    // Cache tiering: hottest entries stay on the heap, the rest are serialized off-heap
+    private static final int MAX_HEAP_CACHE_ENTRIES = 1000;
+    private static final long OFF_HEAP_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final long HEAP_CACHE_BUDGET_BYTES = 16L * 1024 * 1024;
+    
+    // Local search: a full name hit scores 2, a full profile/biography hit 1
+    private static final double MIN_INDEX_SCORE = 1.0;
+    private static final int MAX_INDEXED_RESULTS = 25;
+    // Name search answers from the index alone only for names this close to the query
+    private static final double MIN_CONFIDENT_NAME_COVERAGE = 0.9;
+    
+    // Predefined popular characters, most popular first; they also lead name suggestions
+    private static final List<Integer> POPULAR_IDS = List.of(
+        1001, // Special Week
+        1002, // Silence Suzuka
+        1003, // Tokai Teio
+        1004, // Oguri Cap
+        1005, // Gold Ship
+        1006, // Vodka
+        1007  // Daiwa Scarlet
+    );
+    
     // 🏗️ CONSTRUCTOR
     public CharacterService(ApiConfig config) {
         this.config = Objects.requireNonNull(config, "ApiConfig cannot be null");
         this.cache = new LocalCache();
+        this.cache.enableOffHeapTier(MAX_HEAP_CACHE_ENTRIES, OFF_HEAP_CACHE_BYTES);
+        this.cache.setMemoryBudget(HEAP_CACHE_BUDGET_BYTES);
         this.executor = Executors.newFixedThreadPool(5);
+        this.scrapeEngine = ScrapeEngine.shared();
+        this.bundleImporter = new GameToraBundleImporter();
+        this.searchIndex = new CharacterSearchIndex();
+        this.nameAutocomplete = new NameAutocomplete();
+        this.statIndex = new StatRangeIndex();
+        this.attributeIndex = new AttributeBitmapIndex();
+        this.similarityIndex = new SimilarityIndex();
+        this.rosterPublisher = new RosterPublisher(executor);
+        this.queryPlanner = new QueryPlanner(statIndex, attributeIndex, nameAutocomplete);
+        for (int i = 0; i < POPULAR_IDS.size(); i++) {
+            nameAutocomplete.setBasePopularity(POPULAR_IDS.get(i), POPULAR_IDS.size() - i);
+        }
         logger.info("CharacterService initialized");
     }
     
@@ -45,12 +107,28 @@ public class CharacterService {
      * Falls back to wiki scraping if API data is incomplete
      */
     public UmapyoiCharacter getCharacterById(int characterId) throws IOException {
-        String cacheKey = "character_" + characterId;
-        
+        nameAutocomplete.recordLookup(characterId);
+        return fetchCharacter(characterId, true);
+    }
+    
+    /**
+     * 🔒 PRIVATE: Cached API fetch and indexing of one character
+     * @param enrich whether a fresh fetch also starts GameTora enrichment; scans pass false
+     *               and enrich only the characters they return
+     */
+    private UmapyoiCharacter fetchCharacter(int characterId, boolean enrich) throws IOException {
         // Check cache first
-        if (cache.has(cacheKey)) {
-            logger.debug("Cache hit for character ID: {}", characterId);
-            return cache.get(cacheKey, UmapyoiCharacter.class);
+        UmapyoiCharacter cached = cache.getById(CHARACTER_NAMESPACE, characterId, UmapyoiCharacter.class);
+        if (cached != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Cache hit for character ID: {}", characterId);
+            }
+            return cached;
+        }
+        
+        // Skip IDs that recently returned 404
+        if (cache.isKnownAbsent(characterId)) {
+            throw new IOException("Character " + characterId + " not found (cached)");
         }
         
         // Build URL
@@ -63,6 +141,9 @@ public class CharacterService {
         
         try (Response response = config.getHttpClient().newCall(request).execute()) {
             if (!response.isSuccessful()) {
+                if (response.code() == 404) {
+                    cache.markAbsent(characterId);
+                }
                 throw new IOException("Failed to fetch character " + characterId + 
                                     ": " + response.code() + " " + response.message());
             }
@@ -72,17 +153,40 @@ public class CharacterService {
             UmapyoiCharacter character = config.getObjectMapper()
                 .readValue(json, UmapyoiCharacter.class);
             
-            // Enrich with wiki data if API is incomplete
-            enrichCharacterWithWikiData(character);
+            // Cache the result; a 404 recorded by a concurrent lookup no longer applies
+            cache.clearAbsent(characterId);
+            cache.putById(CHARACTER_NAMESPACE, characterId, character, TimeUnit.HOURS.toMillis(24));
+            searchIndex.index(character);
+            nameAutocomplete.index(character);
+            // Estimated stats and attributes until GameTora enrichment reports the real ones;
+            // indexed before enrichment starts so its callback always writes last
+            Umamusume estimated = character.toDomainModel();
+            if (!enrichedIds.contains(characterId)) {
+                indexStats(characterId, estimated.getStats(), character.getHeight());
+                attributeIndex.put(characterId, estimated);
+                indexSimilarity(characterId, estimated, character.getHeight());
+            }
+            rosterPublisher.updateEstimate(character, estimated);
             
-            // Cache the result
-            cache.put(cacheKey, character, TimeUnit.HOURS.toMillis(24));
+            // Enrich with wiki data if API is incomplete
+            if (enrich) {
+                enrichCharacterWithWikiData(character);
+            }
             logger.debug("Successfully fetched and cached character: {}", character.getNameEnglish());
             
             return character;
         }
     }
     
+    /**
+     * 🔓 Re-fetch a character from the API, bypassing the cached copy
+     * Used by IncrementalRefreshJob to read the current modified_gmt
+     */
+    public UmapyoiCharacter refreshCharacterById(int characterId) throws IOException {
+        cache.removeById(CHARACTER_NAMESPACE, characterId);
+        return getCharacterById(characterId);
+    }
+    
     /**
      * 🔓 Get character and convert to Umamusume domain model
      */
@@ -91,6 +195,46 @@ public class CharacterService {
         return UmamusumeWikiScraper.enrichCharacterData(apiCharacter);
     }
     
+    /**
+     * 🔓 Enrich many characters with GameTora data in parallel.
+     * First imports GameTora's bulk character bundle (if not done recently) so most
+     * characters are served from the scrape cache; the rest are scraped page by page
+     * on the scrape engine's worker pool with per-host politeness limits.
+     * @return future with one domain model per input character, in input order
+     */
+    public CompletableFuture<List<Umamusume>> enrichCharactersAsync(List<UmapyoiCharacter> characters) {
+        logger.info("Queued GameTora enrichment for {} characters", characters.size());
+        return CompletableFuture.runAsync(bundleImporter::importIfStale, executor)
+            .thenCompose(v -> scrapeEngine.enrichAllJoined(characters))
+            .thenApply(models -> {
+                for (int i = 0; i < models.size(); i++) {
+                    Umamusume model = models.get(i);
+                    boolean enriched = model.getName() != null;
+                    if (enriched) {
+                        enrichedIds.add(model.getId());
+                    }
+                    searchIndex.indexEnrichment(model.getId(), model);
+                    indexStats(model.getId(), model.getStats(), characters.get(i).getHeight());
+                    indexAttributes(model.getId(), model);
+                    indexSimilarity(model.getId(), model, characters.get(i).getHeight());
+                    if (enriched) {
+                        rosterPublisher.update(characters.get(i), model);
+                    } else {
+                        rosterPublisher.updateEstimate(characters.get(i), null);
+                    }
+                }
+                return models;
+            });
+    }
+    
+    /**
+     * 🔓 Refresh the scrape cache from GameTora's bulk character bundle
+     * @return number of card records imported
+     */
+    public int importGameToraBundle() throws IOException {
+        return bundleImporter.importAll();
+    }
+    
     /**
      * 🔓 Get multiple characters by IDs
      */
@@ -121,7 +265,10 @@ public class CharacterService {
     
     /**
      * 🔓 Search characters by name (fuzzy search)
-     * Searches IDs 1001-1400 for matching names. Stops immediately on exact match for performance.
+     * Answers from the local search index when an already fetched character's name matches
+     * the input exactly or almost entirely, then from names within a few typos of the input
+     * across the roster; otherwise searches IDs 1001-1400 for matching names, ranking weaker
+     * index hits first. Stops immediately on exact match for performance.
      */
     public List<UmapyoiCharacter> searchCharactersByName(String name) throws IOException {
         if (name == null || name.trim().isEmpty()) {
@@ -131,20 +278,53 @@ public class CharacterService {
         String searchTerm = name.trim().toLowerCase();
         logger.info("Searching for characters with name: '{}'", searchTerm);
         
-        List<UmapyoiCharacter> results = new ArrayList<>();
+        // Local pass: characters fetched earlier are matched without any request
+        int indexedExact = searchIndex.exactMatch(searchTerm);
+        if (indexedExact > 0) {
+            logger.info("Found exact match in search index (ID: {})", indexedExact);
+            return Arrays.asList(getCharacterById(indexedExact));
+        }
+        // Partial trigram overlap ("Gold City" vs. Gold Ship) is only a candidate, not an answer
+        List<CharacterSearchIndex.Hit> hits = searchIndex.search(searchTerm, MIN_INDEX_SCORE, MAX_INDEXED_RESULTS);
+        int[] confidentIds = hits.stream()
+            .filter(hit -> hit.isExactName() || hit.getNameCoverage() >= MIN_CONFIDENT_NAME_COVERAGE)
+            .mapToInt(CharacterSearchIndex.Hit::getCharacterId)
+            .toArray();
+        if (confidentIds.length > 0) {
+            logger.info("Found {} indexed matches for '{}'", confidentIds.length, searchTerm);
+            return resolve(confidentIds);
+        }
+        List<UmapyoiCharacter> candidates = resolve(hits.stream()
+            .mapToInt(CharacterSearchIndex.Hit::getCharacterId)
+            .toArray());
+        
+        // Near-miss pass: a misspelled whole name resolves against the roster's names
+        if (!rosterIndexed) {
+            loadRoster();
+        }
+        int[] closeIds = nameAutocomplete.closestIds(searchTerm);
+        if (closeIds.length > 0) {
+            logger.info("Found {} close name matches for '{}'", closeIds.length, searchTerm);
+            return withoutDuplicates(
+                resolve(Arrays.copyOf(closeIds, Math.min(closeIds.length, MAX_INDEXED_RESULTS))), candidates);
+        }
+        
+        List<UmapyoiCharacter> results = new ArrayList<>(candidates);
         UmapyoiCharacter exactMatch = null;
         
         // First pass: look for exact match (stops immediately when found)
         for (int characterId = 1001; characterId <= 1400; characterId++) {
+            if (cache.isKnownAbsent(characterId)) {
+                continue;
+            }
             try {
-                UmapyoiCharacter character = getCharacterById(characterId);
+                UmapyoiCharacter character = fetchCharacter(characterId, false);
                 
-                // Check for exact name match first
-                if ((character.getNameEnglish() != null && character.getNameEnglish().toLowerCase().equals(searchTerm)) ||
-                    (character.getNameJapanese() != null && character.getNameJapanese().toLowerCase().equals(searchTerm))) {
+                // Check for exact name match first (fetching indexed the folded name keys)
+                if (nameAutocomplete.nameEquals(characterId, searchTerm)) {
                     exactMatch = character;
                     logger.info("Found exact match: {} (ID: {})", character.getNameEnglish(), characterId);
-                    return Arrays.asList(character); // Return immediately on exact match
+                    return enrichScanned(Arrays.asList(character)); // Return immediately on exact match
                 }
                 
                 // Rate limiting
@@ -162,11 +342,15 @@ public class CharacterService {
         // Second pass: if no exact match, search for partial matches
         logger.info("No exact match found. Searching for partial matches...");
         for (int characterId = 1001; characterId <= 1400; characterId++) {
+            if (cache.isKnownAbsent(characterId)) {
+                continue;
+            }
             try {
-                UmapyoiCharacter character = getCharacterById(characterId);
+                UmapyoiCharacter character = fetchCharacter(characterId, false);
                 
                 // Check if character matches search term (partial match)
-                if (character.matchesSearch(searchTerm)) {
+                if ((nameAutocomplete.nameContains(characterId, searchTerm) || character.matchesSearch(searchTerm))
+                        && !candidates.contains(character)) {
                     results.add(character);
                     logger.debug("Found partial match: {} (ID: {})", 
                                character.getNameEnglish(), characterId);
@@ -191,9 +375,122 @@ public class CharacterService {
         
         logger.info("Search completed. Found {} partial matches for '{}'", 
                    results.size(), searchTerm);
+        return enrichScanned(results);
+    }
+    
+    /**
+     * 🔒 PRIVATE: Start GameTora enrichment for scan results that have none yet
+     */
+    private List<UmapyoiCharacter> enrichScanned(List<UmapyoiCharacter> results) {
+        for (UmapyoiCharacter character : results) {
+            if (!enrichedIds.contains(character.getGameId())) {
+                enrichCharacterWithWikiData(character);
+            }
+        }
         return results;
     }
     
+    /**
+     * 🔓 Check a fetched character's English or Japanese name against a term, ignoring case,
+     * character width, hiragana/katakana and romanization ("すぺしゃる", "ｽﾍﾟｼｬﾙ" and
+     * "supesharu" all match スペシャルウィーク)
+     * @return false for characters that were never fetched
+     */
+    public boolean nameMatches(int characterId, String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return false;
+        }
+        return nameAutocomplete.nameContains(characterId, term);
+    }
+    
+    /**
+     * 🔓 Ranked full-text search over characters fetched so far (names, profile, slogan,
+     * strengths, GameTora biography and skills). Never scans the API.
+     * @return matching characters, best first
+     */
+    public List<UmapyoiCharacter> searchIndexed(String query, int limit) {
+        return resolve(searchIndex.search(query, MIN_INDEX_SCORE, limit).stream()
+            .mapToInt(CharacterSearchIndex.Hit::getCharacterId)
+            .toArray());
+    }
+    
+    /**
+     * 🔓 Complete a partially typed English, Japanese or internal name
+     * Answers from names already known locally (fetched characters and the character
+     * list); never makes a request.
+     * @return up to limit suggestions, most looked-up characters first
+     */
+    public List<NameTrie.Completion> suggestNames(String prefix, int limit) {
+        return nameAutocomplete.suggest(prefix, Math.min(limit, NameAutocomplete.MAX_COMPLETIONS));
+    }
+    
+    /**
+     * 🔓 Make sure name suggestions know the whole roster
+     * Loads the character list (one request, then cached) if no names are known yet.
+     * @return number of characters suggestions can draw from
+     */
+    public int warmNameSuggestions() {
+        if (nameAutocomplete.size() == 0) {
+            loadRoster();
+        }
+        return nameAutocomplete.size();
+    }
+    
+    /**
+     * 🔓 Filter characters by rarity, type and aptitude grades with bitmap operations
+     * The character list seeds rarities for the whole roster; types and aptitudes come from
+     * fetched and enriched characters. Only the matching characters are fetched.
+     * @return matching characters in ID order
+     */
+    public List<UmapyoiCharacter> findByAttributes(AttributeBitmapIndex.Filter filter) {
+        if (!rosterIndexed) {
+            loadRoster();
+        }
+        int[] ids = attributeIndex.query(filter);
+        return resolve(ids);
+    }
+    
+    /**
+     * 🔓 Run an advanced-search query such as {@code rarity:SSR speed>=100 surface:turf>=A name~"gold"}
+     * The query is planned over the in-memory indexes (see {@link QueryPlanner}); only the
+     * matching characters are fetched.
+     * @throws IllegalArgumentException if the query cannot be parsed
+     */
+    public List<UmapyoiCharacter> searchByQuery(String queryText) {
+        QueryPlanner.Plan plan = planQuery(queryText);
+        int[] ids = plan.execute();
+        logger.info("Query '{}' via {} matched {} characters", queryText, plan.explain(), ids.length);
+        
+        return resolve(ids);
+    }
+    
+    /**
+     * 🔓 Parse and plan a query without running it
+     * @throws IllegalArgumentException if the query cannot be parsed
+     */
+    public QueryPlanner.Plan planQuery(String queryText) {
+        CharacterQuery query = CharacterQuery.parse(queryText);
+        if (!rosterIndexed) {
+            loadRoster();
+        }
+        return queryPlanner.plan(query);
+    }
+    
+    /**
+     * 🔓 Count characters matching an attribute filter without fetching any of them
+     */
+    public int countByAttributes(AttributeBitmapIndex.Filter filter) {
+        return attributeIndex.count(filter);
+    }
+    
+    /**
+     * 🔓 Check if a character ID recently returned "not found"
+     * Scan-style callers use this to skip dead IDs without a request
+     */
+    public boolean isKnownAbsent(int characterId) {
+        return cache.isKnownAbsent(characterId);
+    }
+    
     /**
      * 🔓 Async version of getCharacterById
      */
@@ -228,10 +525,9 @@ public class CharacterService {
      * Endpoint: GET /api/v1/character/images/{id}
      */
     public CharacterImages getCharacterImages(int characterId) throws IOException {
-        String cacheKey = "character_images_" + characterId;
-        
-        if (cache.has(cacheKey)) {
-            return cache.get(cacheKey, CharacterImages.class);
+        CharacterImages cached = cache.getById(IMAGES_NAMESPACE, characterId, CharacterImages.class);
+        if (cached != null) {
+            return cached;
         }
         
         String url = config.getBaseUrl() + "/api/v1/character/images/" + characterId;
@@ -248,7 +544,7 @@ public class CharacterService {
             CharacterImages images = config.getObjectMapper()
                 .readValue(json, CharacterImages.class);
             
-            cache.put(cacheKey, images, TimeUnit.HOURS.toMillis(168)); // 7 days cache
+            cache.putById(IMAGES_NAMESPACE, characterId, images, TimeUnit.HOURS.toMillis(168)); // 7 days cache
             return images;
         }
     }
@@ -294,7 +590,9 @@ public class CharacterService {
         String cacheKey = "character_list";
         
         if (cache.has(cacheKey)) {
-            return cache.get(cacheKey, new TypeReference<List<Map<String, Object>>>() {});
+            List<Map<String, Object>> cachedList = cache.get(cacheKey, new TypeReference<List<Map<String, Object>>>() {});
+            indexRoster(cachedList);
+            return cachedList;
         }
         
         String url = config.getBaseUrl() + "/api/v1/character/list";
@@ -312,6 +610,7 @@ public class CharacterService {
                 .readValue(json, new TypeReference<List<Map<String, Object>>>() {});
             
             cache.put(cacheKey, characterList);
+            indexRoster(characterList);
             logger.info("Fetched character list with {} entries", characterList.size());
             
             return characterList;
@@ -322,17 +621,7 @@ public class CharacterService {
      * 🔓 Get popular characters (predefined IDs)
      */
     public List<UmapyoiCharacter> getPopularCharacters() throws IOException {
-        List<Integer> popularIds = Arrays.asList(
-            1001, // Special Week
-            1002, // Silence Suzuka
-            1003, // Tokai Teio
-            1004, // Oguri Cap
-            1005, // Gold Ship
-            1006, // Vodka
-            1007  // Daiwa Scarlet
-        );
-        
-        return getCharacters(popularIds);
+        return getCharacters(POPULAR_IDS);
     }
     
     /**
@@ -393,36 +682,105 @@ public class CharacterService {
     }
     
     /**
-     * 🔓 Get characters by height range
+     * 🔓 Get popular characters by height range
      */
     public List<UmapyoiCharacter> getCharactersByHeight(int minHeight, int maxHeight) throws IOException {
         logger.info("Searching for characters with height between {} and {} cm", 
                    minHeight, maxHeight);
         
-        List<UmapyoiCharacter> results = new ArrayList<>();
-        List<UmapyoiCharacter> popularChars = getPopularCharacters();
+        List<UmapyoiCharacter> results = findByStats(
+            new StatRangeIndex.Query().between(StatRangeIndex.Dimension.HEIGHT, minHeight, maxHeight),
+            getPopularCharacters());
         
-        for (UmapyoiCharacter character : popularChars) {
-            if (character.getHeight() >= minHeight && character.getHeight() <= maxHeight) {
+        logger.info("Found {} characters in height range", results.size());
+        return results;
+    }
+    
+    /**
+     * 🔓 Range query over stats and height of every character fetched so far
+     * Stats are GameTora's once enrichment finished, estimates before that.
+     * @return matching characters in ID order
+     */
+    public List<UmapyoiCharacter> findByStats(StatRangeIndex.Query query) {
+        int[] ids = statIndex.query(query);
+        Arrays.sort(ids);
+        return resolve(ids);
+    }
+    
+    /**
+     * 🔓 Range query restricted to the given characters
+     * The stat index answers the range once; candidates are kept in their own order.
+     * @return the candidates whose indexed stats and height match
+     */
+    public List<UmapyoiCharacter> findByStats(StatRangeIndex.Query query, List<UmapyoiCharacter> candidates) {
+        int[] ids = statIndex.query(query);
+        Arrays.sort(ids);
+        List<UmapyoiCharacter> results = new ArrayList<>();
+        for (UmapyoiCharacter character : candidates) {
+            if (Arrays.binarySearch(ids, character.getGameId()) >= 0) {
                 results.add(character);
             }
         }
-        
-        logger.info("Found {} characters in height range", results.size());
         return results;
     }
     
+    /**
+     * 🔓 Count characters fetched so far whose stats and height fall in a range
+     */
+    public int countByStats(StatRangeIndex.Query query) {
+        return statIndex.count(query);
+    }
+    
+    /**
+     * 🔓 The characters fetched so far whose stats, aptitudes, height and type are closest
+     * to a character's (nearest first, the character itself excluded)
+     * Loads the popular characters first so there is always something to compare with.
+     */
+    public List<UmapyoiCharacter> findSimilar(int characterId, int limit) throws IOException {
+        getCharacterById(characterId);
+        getPopularCharacters();
+        return resolve(similarityIndex.nearest(characterId, limit).stream()
+            .mapToInt(SimilarityIndex.Neighbor::getCharacterId)
+            .toArray());
+    }
+    
+    /**
+     * 🔓 Profile distance between two fetched characters (0 = identical)
+     * @return the distance, or NaN if either has not been indexed yet
+     */
+    public double similarityDistance(int firstId, int secondId) {
+        return similarityIndex.distance(firstId, secondId);
+    }
+    
+    /**
+     * 🔓 Consistent, lock-free view of every character fetched so far
+     * Published a moment after each fetch or enrichment; never blocks on them.
+     */
+    public RosterSnapshot getRoster() {
+        return rosterPublisher.current();
+    }
+    
     /**
      * 🔓 Get service statistics
      */
     public Map<String, Object> getServiceStats() {
-        return Map.of(
-            "cacheSize", cache.size(),
-            "cacheHitRate", String.format("%.1f%%", cache.getHitRate()),
-            "executorActive", !executor.isShutdown(),
-            "serviceName", "CharacterService",
-            "rateLimit", MAX_REQUESTS_PER_SECOND + " requests/second"
-        );
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheSize", cache.size());
+        stats.put("cacheHitRate", String.format("%.1f%%", cache.getHitRate()));
+        stats.put("executorActive", !executor.isShutdown());
+        stats.put("scrapeEngine", scrapeEngine.getStats());
+        stats.put("scrapeCache", UmamusumeWikiScraper.getScrapeCache().getStats());
+        stats.put("scraper", UmamusumeWikiScraper.getMetrics().getStats());
+        stats.put("cardIdIndex", UmamusumeWikiScraper.getCardIdIndex().getStats());
+        stats.put("searchIndex", searchIndex.getStats());
+        stats.put("nameAutocomplete", nameAutocomplete.getStats());
+        stats.put("statIndex", statIndex.getStats());
+        stats.put("attributeIndex", attributeIndex.getStats());
+        stats.put("similarityIndex", similarityIndex.getStats());
+        stats.put("roster", rosterPublisher.getStats());
+        stats.put("serviceName", "CharacterService");
+        stats.put("rateLimit", MAX_REQUESTS_PER_SECOND + " requests/second");
+        return stats;
     }
     
     /**
@@ -430,7 +788,9 @@ public class CharacterService {
      */
     public void printCacheInfo() {
         logger.info("=== CharacterService Cache Info ===");
-        logger.info("Total cached items: {}", cache.size());
+        logger.info("Total cached items: {} ({} on heap, ~{} KB)", 
+            cache.size(), cache.heapSize(), cache.getHeapBytes() / 1024);
+        logger.info("Heap bytes by namespace: {}", cache.getBytesByNamespace());
         logger.info("Cache hit rate: {}%", String.format("%.1f", cache.getHitRate()));
     }
     
@@ -446,6 +806,9 @@ public class CharacterService {
      * 🔓 Clean shutdown
      */
     public void shutdown() {
+        // The scrape engine is shared with the static scraper entry points and stays up;
+        // its idle daemon workers time out on their own
+        UmamusumeWikiScraper.getScrapeCache().flush();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -478,26 +841,130 @@ public class CharacterService {
         }
     }
     
+    /**
+     * 🔒 Update a character's point in the stat index; models without stats are skipped
+     */
+    private void indexStats(int characterId, Umamusume.Stats stats, int height) {
+        if (characterId > 0 && stats != null && stats.getTotal() > 0) {
+            statIndex.put(characterId, stats, height);
+        }
+    }
+    
+    /**
+     * 🔒 Update a character's rarity, type and aptitude bits
+     */
+    private void indexAttributes(int characterId, Umamusume model) {
+        if (characterId > 0 && model != null) {
+            attributeIndex.put(characterId, model);
+        }
+    }
+    
+    /**
+     * 🔒 Look up index hits, in the given order
+     * Characters in the current roster snapshot are read from it; the rest are fetched.
+     */
+    private List<UmapyoiCharacter> resolve(int[] ids) {
+        RosterSnapshot roster = rosterPublisher.current();
+        List<UmapyoiCharacter> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            UmapyoiCharacter character = roster.get(id);
+            if (character != null) {
+                results.add(character);
+                continue;
+            }
+            if (cache.isKnownAbsent(id)) {
+                continue;
+            }
+            try {
+                results.add(getCharacterById(id));
+            } catch (IOException e) {
+                logger.debug("Indexed character {} no longer available: {}", id, e.getMessage());
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * 🔒 Concatenate result lists, keeping each character's first occurrence
+     */
+    private static List<UmapyoiCharacter> withoutDuplicates(List<UmapyoiCharacter> first, List<UmapyoiCharacter> rest) {
+        Set<UmapyoiCharacter> merged = new LinkedHashSet<>(first);
+        merged.addAll(rest);
+        return new ArrayList<>(merged);
+    }
+    
+    /**
+     * 🔒 Update a character's profile vector; models without stats are skipped
+     */
+    private void indexSimilarity(int characterId, Umamusume model, int height) {
+        if (characterId > 0 && model != null && model.getStats() != null && model.getStats().getTotal() > 0) {
+            similarityIndex.put(characterId, model, height);
+        }
+    }
+    
+    /**
+     * 🔒 Load the character list so roster-wide indexes know every character
+     */
+    private void loadRoster() {
+        try {
+            getCharacterList();
+        } catch (IOException e) {
+            logger.warn("Could not load character list: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 🔒 Feed the names (and ID-derived rarities) from a character list into name suggestions
+     */
+    private void indexRoster(List<Map<String, Object>> characterList) {
+        if (characterList == null) {
+            return;
+        }
+        for (Map<String, Object> entry : characterList) {
+            Object gameId = entry.get("game_id");
+            if (gameId instanceof Number && ((Number) gameId).intValue() > 0) {
+                int id = ((Number) gameId).intValue();
+                // Listed by the API, so an earlier 404 for it is out of date
+                cache.clearAbsent(id);
+                if (!attributeIndex.contains(id)) {
+                    attributeIndex.putRarity(id, UmapyoiCharacter.rarityForGameId(id));
+                }
+                nameAutocomplete.add(id,
+                    Objects.toString(entry.get("name_en"), null),
+                    Objects.toString(entry.get("name_jp"), null),
+                    Objects.toString(entry.get("name_en_internal"), null));
+            }
+        }
+        rosterIndexed = true;
+    }
+    
     /**
      * 🌐 Enrich character data with wiki scraping if API response is incomplete
      * Used as fallback when API doesn't provide skills, stats, or track type
-     * Now returns enriched Umamusume domain model
+     * Runs on the scrape engine so the API fetch does not wait for GameTora
      */
     private void enrichCharacterWithWikiData(UmapyoiCharacter character) {
         if (character == null || character.getNameEnglish() == null) {
             return;
         }
         
-        try {
-            logger.debug("Attempting to enrich character {} with wiki data", character.getNameEnglish());
-            
-            // Use new scraper that returns Umamusume model
-            Umamusume enrichedModel = UmamusumeWikiScraper.enrichCharacterData(character);
-            
+        logger.debug("Attempting to enrich character {} with wiki data", character.getNameEnglish());
+        scrapeEngine.enrich(character).whenComplete((enrichedModel, error) -> {
+            if (error != null) {
+                logger.debug("Wiki enrichment failed for {}: {}", character.getNameEnglish(), error.getMessage());
+                // Continue with API data only, don't fail the entire fetch
+                return;
+            }
             if (enrichedModel == null || enrichedModel.getName() == null) {
                 logger.debug("No additional wiki data found for {}", character.getNameEnglish());
                 return;
             }
+            enrichedIds.add(character.getGameId());
+            searchIndex.indexEnrichment(character.getGameId(), enrichedModel);
+            indexStats(character.getGameId(), enrichedModel.getStats(), character.getHeight());
+            indexAttributes(character.getGameId(), enrichedModel);
+            indexSimilarity(character.getGameId(), enrichedModel, character.getHeight());
+            rosterPublisher.update(character, enrichedModel);
             
             // Log enrichment details
             Umamusume.Stats stats = enrichedModel.getStats();
@@ -511,10 +978,6 @@ public class CharacterService {
             if (enrichedModel.getType() != null) {
                 logger.debug("Wiki enrichment - Type: {}", enrichedModel.getType());
             }
-            
-        } catch (Exception e) {
-            logger.debug("Wiki enrichment failed for {}: {}", character.getNameEnglish(), e.getMessage());
-            // Continue with API data only, don't fail the entire fetch
-        }
+        });
     }
 }
@@ -0,0 +1,145 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bulk importer for GameTora's Next.js data bundles.
+ * The character list page exposes the site's build ID in __NEXT_DATA__; with it,
+ * {@code /_next/data/{buildId}/umamusume/characters.json} returns the itemData records of
+ * every card in one response. The bundle is decoded with streaming parsing and each record
+ * is written to the {@link ScrapeCache} under its card page URL (and slug URL), exactly as a
+ * page scrape would have stored it. Card IDs and slugs also feed the {@link CardIdIndex}. Per-character page scraping becomes the fallback for
+ * cards missing from the bundle.
+ */
+public class GameToraBundleImporter {
+    private static final Logger logger = LoggerFactory.getLogger(GameToraBundleImporter.class);
+
+    private static final String SITE_ROOT = "https://gametora.com";
+    private static final String CHARACTER_LIST_URL = UmamusumeWikiScraper.WIKI_BASE_URL + "/characters";
+    private static final String BUNDLE_PATH = "/umamusume/characters.json";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final long RETRY_AFTER_FAILURE_MS = 10 * 60 * 1000; // 10 minutes
+
+    private final ScrapeCache scrapeCache;
+    private final CardIdIndex cardIdIndex;
+    private volatile long lastImportAt = 0;
+    private volatile int lastImportCount = 0;
+    private volatile long lastFailureAt = 0;
+
+    public GameToraBundleImporter() {
+        this(UmamusumeWikiScraper.getScrapeCache(), UmamusumeWikiScraper.getCardIdIndex());
+    }
+
+    public GameToraBundleImporter(ScrapeCache scrapeCache, CardIdIndex cardIdIndex) {
+        this.scrapeCache = scrapeCache;
+        this.cardIdIndex = cardIdIndex;
+    }
+
+    /**
+     * Download the character bundle and fill the scrape cache with every card in it.
+     * Costs two requests: the list page (for the build ID) and the bundle itself.
+     * @return number of card records imported
+     */
+    public int importAll() throws IOException {
+        String buildId = fetchBuildId();
+        String bundleUrl = SITE_ROOT + "/_next/data/" + buildId + BUNDLE_PATH;
+        logger.info("Importing GameTora character bundle: {}", bundleUrl);
+
+        Connection.Response response = Jsoup.connect(bundleUrl)
+            .userAgent(UmamusumeWikiScraper.USER_AGENT)
+            .timeout(UmamusumeWikiScraper.TIMEOUT_MS)
+            .ignoreContentType(true)
+            .maxBodySize(0)
+            .execute();
+
+        int imported;
+        try (InputStream body = response.bodyStream()) {
+            imported = importBundle(body);
+        }
+        lastImportAt = System.currentTimeMillis();
+        lastImportCount = imported;
+        return imported;
+    }
+
+    /**
+     * Import only if no import happened within the scrape cache's max age.
+     * Failures are logged and not retried for a while; callers fall back to per-page scraping.
+     * @return number of card records imported (0 if skipped or failed)
+     */
+    public int importIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - lastImportAt < scrapeCache.getMaxAge() || now - lastFailureAt < RETRY_AFTER_FAILURE_MS) {
+            return 0;
+        }
+        try {
+            return importAll();
+        } catch (IOException e) {
+            lastFailureAt = System.currentTimeMillis();
+            logger.warn("GameTora bundle import failed, falling back to page scraping: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Decode a characters bundle and store its records in the scrape cache.
+     * Package-private so recorded bundles can be replayed without the network.
+     * @return number of card records imported
+     */
+    int importBundle(InputStream bundle) throws IOException {
+        Map<String, Map<String, Object>> fieldsByUrl = new LinkedHashMap<>();
+        int records;
+        try (JsonParser parser = JSON_FACTORY.createParser(bundle)) {
+            records = NextDataExtractor.scanRecords(parser, item -> {
+                Map<String, Object> fields = UmamusumeWikiScraper.toScrapeResult(item).toFields();
+                if (item.cardId > 0) {
+                    fieldsByUrl.put(UmamusumeWikiScraper.characterPageUrl(String.valueOf(item.cardId)), fields);
+                }
+                if (item.urlName != null && !item.urlName.isEmpty()) {
+                    fieldsByUrl.put(UmamusumeWikiScraper.characterPageUrl(item.urlName), fields);
+                }
+                long baseId = item.baseId > 0 ? item.baseId : CardIdIndex.baseIdOf(item.cardId);
+                cardIdIndex.record(baseId, item.cardId, item.urlName);
+            });
+        }
+        cardIdIndex.save();
+
+        if (!fieldsByUrl.isEmpty()) {
+            scrapeCache.putAll(fieldsByUrl);
+        }
+        logger.info("Imported {} GameTora card records ({} page URLs) into the scrape cache",
+            records, fieldsByUrl.size());
+        return records;
+    }
+
+    public long getLastImportAt() {
+        return lastImportAt;
+    }
+
+    public int getLastImportCount() {
+        return lastImportCount;
+    }
+
+    private String fetchBuildId() throws IOException {
+        Connection.Response response = Jsoup.connect(CHARACTER_LIST_URL)
+            .userAgent(UmamusumeWikiScraper.USER_AGENT)
+            .timeout(UmamusumeWikiScraper.TIMEOUT_MS)
+            .followRedirects(true)
+            .execute();
+        String buildId = NextDataExtractor.extractBuildId(response.bodyAsBytes());
+        if (buildId == null) {
+            throw new IOException("No Next.js buildId found on " + CHARACTER_LIST_URL);
+        }
+        return buildId;
+    }
+}
@@ -0,0 +1,293 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Periodic refresh of enriched characters that only pays for what changed.
+ * For every character the job remembers the Umapyoi {@code modified_gmt} seen on the last run.
+ * A character is re-fetched from the API only when the character list reports a different
+ * modified date (or does not carry one), and re-scraped from GameTora only when its API record
+ * changed or its stored scrape is older than the scrape cache's max age.
+ * Every detected change is appended to a change log.
+ */
+public class IncrementalRefreshJob {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRefreshJob.class);
+
+    public static final String DEFAULT_STATE_PATH = "data/cache/refresh-state.json";
+    public static final String DEFAULT_CHANGE_LOG_PATH = "data/cache/refresh-changes.log";
+
+    /** Why a character was refreshed */
+    public enum ChangeType {
+        NEW, MODIFIED, STALE_SCRAPE, FAILED
+    }
+
+    /** Persisted per-character state. Public fields so Jackson can store it as-is. */
+    public static class CharacterState {
+        public String modifiedGmt;
+        public long scrapedAt;
+        public long checkedAt;
+        /** Page the last scrape was cached under (card ID or name slug page) */
+        public String scrapedUrl;
+    }
+
+    /** Persisted job state */
+    public static class State {
+        public long lastRunAt;
+        public Map<Integer, CharacterState> characters = new HashMap<>();
+    }
+
+    /** Outcome of one run */
+    public static class RefreshReport {
+        private int checked;
+        private int unchanged;
+        private int refetched;
+        private int rescraped;
+        private int failed;
+        private final List<String> changes = new ArrayList<>();
+
+        public int getChecked() { return checked; }
+        public int getUnchanged() { return unchanged; }
+        public int getRefetched() { return refetched; }
+        public int getRescraped() { return rescraped; }
+        public int getFailed() { return failed; }
+        public List<String> getChanges() { return changes; }
+
+        @Override
+        public String toString() {
+            return String.format("checked=%d unchanged=%d refetched=%d rescraped=%d failed=%d",
+                checked, unchanged, refetched, rescraped, failed);
+        }
+    }
+
+    private final CharacterService characterService;
+    private final ScrapeCache scrapeCache;
+    private final Path stateFile;
+    private final Path changeLog;
+    private final ObjectMapper mapper;
+    private State state;
+
+    public IncrementalRefreshJob(CharacterService characterService) {
+        this(characterService, UmamusumeWikiScraper.getScrapeCache(),
+            Paths.get(DEFAULT_STATE_PATH), Paths.get(DEFAULT_CHANGE_LOG_PATH));
+    }
+
+    public IncrementalRefreshJob(CharacterService characterService, ScrapeCache scrapeCache,
+                                 Path stateFile, Path changeLog) {
+        this.characterService = Objects.requireNonNull(characterService, "CharacterService cannot be null");
+        this.scrapeCache = Objects.requireNonNull(scrapeCache, "ScrapeCache cannot be null");
+        this.stateFile = stateFile;
+        this.changeLog = changeLog;
+        this.mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.state = loadState();
+    }
+
+    /**
+     * Refresh every character in the Umapyoi character list
+     */
+    public synchronized RefreshReport runAll() throws IOException {
+        List<Map<String, Object>> list = characterService.getCharacterList();
+        Map<Integer, String> listModified = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Map<String, Object> entry : list) {
+            Object gameId = entry.get("game_id");
+            if (gameId instanceof Number && ((Number) gameId).intValue() > 0) {
+                int id = ((Number) gameId).intValue();
+                ids.add(id);
+                Object modified = entry.get("modified_gmt");
+                if (modified != null) {
+                    listModified.put(id, modified.toString());
+                }
+            }
+        }
+        return run(ids, listModified);
+    }
+
+    /**
+     * Refresh the given characters
+     * @param listModified modified_gmt per ID as reported by a list endpoint; IDs without an
+     *                     entry are re-fetched to learn their current modified date
+     */
+    public synchronized RefreshReport run(Collection<Integer> characterIds, Map<Integer, String> listModified) {
+        long runStartedAt = System.currentTimeMillis();
+        RefreshReport report = new RefreshReport();
+        List<UmapyoiCharacter> toScrape = new ArrayList<>();
+
+        for (int id : characterIds) {
+            report.checked++;
+            CharacterState previous = state.characters.get(id);
+            boolean scrapeStale = freshScrapeUrl(
+                scrapeUrls(new UmapyoiCharacter(id, null, null), previous)) == null;
+
+            // Cheapest check: the list already says nothing changed upstream
+            String knownModified = listModified.get(id);
+            if (previous != null && knownModified != null
+                && knownModified.equals(previous.modifiedGmt) && !scrapeStale) {
+                previous.checkedAt = runStartedAt;
+                report.unchanged++;
+                continue;
+            }
+
+            UmapyoiCharacter fresh;
+            try {
+                fresh = characterService.refreshCharacterById(id);
+                report.refetched++;
+            } catch (IOException e) {
+                report.failed++;
+                recordChange(report, id, null, ChangeType.FAILED, e.getMessage());
+                continue;
+            }
+
+            String modified = fresh.getDateModified();
+            boolean apiChanged = previous == null || !Objects.equals(previous.modifiedGmt, modified);
+            CharacterState current = previous != null ? previous : new CharacterState();
+            current.modifiedGmt = modified;
+            current.checkedAt = runStartedAt;
+            state.characters.put(id, current);
+
+            if (!apiChanged && !scrapeStale) {
+                report.unchanged++;
+                continue;
+            }
+
+            if (apiChanged && previous != null) {
+                // Upstream record changed: the stored scrape may no longer match it
+                for (String url : scrapeUrls(fresh, previous)) {
+                    scrapeCache.remove(url);
+                }
+            }
+            ChangeType type = previous == null ? ChangeType.NEW
+                : apiChanged ? ChangeType.MODIFIED : ChangeType.STALE_SCRAPE;
+            recordChange(report, id, fresh.getNameEnglish(), type,
+                apiChanged ? "modified_gmt " + (previous != null ? previous.modifiedGmt : "-") + " -> " + modified
+                           : "scrape older than " + scrapeCache.getMaxAge() + "ms");
+            toScrape.add(fresh);
+        }
+
+        if (!toScrape.isEmpty()) {
+            try {
+                characterService.enrichCharactersAsync(toScrape).join();
+            } catch (RuntimeException e) {
+                logger.warn("Re-scrape batch did not complete: {}", e.getMessage());
+            }
+            for (UmapyoiCharacter character : toScrape) {
+                CharacterState current = state.characters.get(character.getGameId());
+                String scrapedUrl = freshScrapeUrl(scrapeUrls(character, current));
+                if (scrapedUrl != null) {
+                    current.scrapedAt = scrapeCache.get(scrapedUrl).fetchedAt;
+                    current.scrapedUrl = scrapedUrl;
+                    report.rescraped++;
+                }
+            }
+        }
+
+        state.lastRunAt = runStartedAt;
+        saveState();
+        logger.info("Incremental refresh finished: {}", report);
+        return report;
+    }
+
+    /**
+     * When the last run started (0 if never)
+     */
+    public long getLastRunAt() {
+        return state.lastRunAt;
+    }
+
+    /**
+     * Pages a character's scrape may be cached under: the one recorded on the last run,
+     * then the ID page and the name page that enrichment races against each other
+     */
+    private static Set<String> scrapeUrls(UmapyoiCharacter character, CharacterState previous) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (previous != null && previous.scrapedUrl != null) {
+            urls.add(previous.scrapedUrl);
+        }
+        String primary = UmamusumeWikiScraper.resolveWikiUrl(character);
+        if (primary != null) {
+            urls.add(primary);
+        }
+        String alternate = UmamusumeWikiScraper.resolveAlternateWikiUrl(character);
+        if (alternate != null) {
+            urls.add(alternate);
+        }
+        return urls;
+    }
+
+    /**
+     * @return the first URL with a fresh cached scrape, or null if every one is stale or missing
+     */
+    private String freshScrapeUrl(Collection<String> urls) {
+        for (String url : urls) {
+            if (scrapeCache.isFresh(scrapeCache.get(url))) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    private void recordChange(RefreshReport report, int id, String name, ChangeType type, String detail) {
+        String line = Instant.now() + " " + id + " " + (name != null ? name : "?") + " " + type + " " + detail;
+        report.changes.add(line);
+        try {
+            Path parent = changeLog.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(changeLog, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append to change log {}: {}", changeLog, e.getMessage());
+        }
+    }
+
+    private State loadState() {
+        if (Files.isRegularFile(stateFile)) {
+            try {
+                State loaded = mapper.readValue(stateFile.toFile(), State.class);
+                if (loaded != null && loaded.characters != null) {
+                    return loaded;
+                }
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable refresh state {}: {}", stateFile, e.getMessage());
+            }
+        }
+        return new State();
+    }
+
+    private void saveState() {
+        try {
+            Path parent = stateFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            mapper.writeValue(stateFile.toFile(), state);
+        } catch (IOException e) {
+            logger.warn("Failed to persist refresh state {}: {}", stateFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.atziluth.sephirah.chesed.api;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the most recent latency samples, for percentile queries.
+ * A fixed ring of longs: recording allocates nothing, a percentile query copies and sorts the window.
+ */
+class LatencyTracker {
+    private final long[] samples;
+    private int next = 0;
+    private int count = 0;
+
+    LatencyTracker(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.samples = new long[window];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @param quantile between 0 and 1 (e.g. 0.9 for p90)
+     * @return the sample at that quantile, or 0 if nothing was recorded
+     */
+    synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] window = Arrays.copyOf(samples, count);
+        Arrays.sort(window);
+        int index = (int) Math.ceil(quantile * count) - 1;
+        return window[Math.max(0, Math.min(count - 1, index))];
+    }
+}
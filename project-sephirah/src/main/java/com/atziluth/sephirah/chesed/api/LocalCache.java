@@ -0,0 +1,852 @@
+// 📄 src/main/java/com/atziluth/sephirah/chesed/api/LocalCache.java
+package com.atziluth.sephirah.chesed.api;
+
+import com.atziluth.sephirah.chesed.util.IntObjectStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🟢 [CLASS] In-memory cache for API responses with TTL
+ * 🎯 PURPOSE: Reduce API calls, improve performance, handle rate limits
+ * 📚 DEMONSTRATES: Caching strategy, concurrency, TTL patterns
+ * 🔒 ENCAPSULATION: Private inner CacheEntry class
+ * 🧊 TIERING: Optional off-heap tier holds serialized entries demoted from the heap
+ * 🚫 NEGATIVE CACHING: Remembers IDs the API reported as missing, with a shorter TTL
+ * 🔢 ID NAMESPACES: Int-keyed entries (e.g. characters by game ID) skip String key building
+ * ⚖️ MEMORY BUDGET: Entries are weighed on insert; the heap tier is trimmed to a byte budget
+ */
+public class LocalCache {
+    private static final Logger logger = LoggerFactory.getLogger(LocalCache.class);
+    
+    // 🔒 PRIVATE INNER CLASS (encapsulation example)
+    private static class CacheEntry {
+        final Object data;
+        final long expiryTime;
+        final String type;
+        final long weight;
+        volatile long lastAccess;
+        
+        CacheEntry(Object data, long ttlMillis, String type, long weight) {
+            this(type, data, System.currentTimeMillis() + ttlMillis, weight);
+        }
+        
+        CacheEntry(String type, Object data, long expiryTime, long weight) {
+            this.data = data;
+            this.expiryTime = expiryTime;
+            this.type = type;
+            this.weight = weight;
+            this.lastAccess = System.nanoTime();
+        }
+        
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+        
+        long getTimeUntilExpiry() {
+            return Math.max(0, expiryTime - System.currentTimeMillis());
+        }
+    }
+    
+    // 🔒 Heap slot picked for demotion (idSpace is null for String-keyed entries)
+    private static class HeapSlot {
+        final String key;
+        final String idSpace;
+        final int id;
+        final CacheEntry entry;
+        
+        HeapSlot(String key, String idSpace, int id, CacheEntry entry) {
+            this.key = key;
+            this.idSpace = idSpace;
+            this.id = id;
+            this.entry = entry;
+        }
+    }
+    
+    // 🔒 PRIVATE FIELDS
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<String, IntObjectStore<CacheEntry>> idSpaces = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private long defaultTTL = TimeUnit.MINUTES.toMillis(30);
+    
+    // 🚫 Known-absent IDs (404 responses)
+    private volatile NegativeIdCache absentIds = new NegativeIdCache(TimeUnit.MINUTES.toMillis(10));
+    
+    // 🧊 Off-heap tier (disabled until enableOffHeapTier is called)
+    private OffHeapCacheTier offHeapTier;
+    private int maxHeapEntries = Integer.MAX_VALUE;
+    private final Object tierLock = new Object();
+    
+    // ⚖️ Memory budget (unbounded until setMemoryBudget is called)
+    private volatile CacheWeigher weigher = new ObjectSizeEstimator();
+    private long maxHeapBytes = Long.MAX_VALUE;
+    private final AtomicLong heapBytes = new AtomicLong();
+    
+    // 📊 Cache statistics (encapsulated)
+    private int hitCount = 0;
+    private int missCount = 0;
+    private int evictionCount = 0;
+    private int demotionCount = 0;
+    private int promotionCount = 0;
+    
+    // 🏗️ CONSTRUCTORS
+    public LocalCache() {
+        this.objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+    
+    public LocalCache(long defaultTTLMillis) {
+        this();
+        this.defaultTTL = defaultTTLMillis;
+    }
+    
+    /**
+     * 🔓 TIERING: Keep at most maxHeapEntries live objects on the heap.
+     * Least recently used entries beyond that are serialized into off-heap
+     * segments and decoded back onto the heap when they are read again.
+     * Values of generic types (lists, maps) cannot be decoded by class name; like entries the
+     * tier cannot take, they are evicted instead of demoted.
+     * @param maxHeapEntries Number of entries kept as live objects
+     * @param offHeapCapacityBytes Direct memory reserved for demoted entries
+     */
+    public void enableOffHeapTier(int maxHeapEntries, long offHeapCapacityBytes) {
+        if (maxHeapEntries < 1) {
+            throw new IllegalArgumentException("maxHeapEntries must be positive");
+        }
+        synchronized (tierLock) {
+            this.offHeapTier = new OffHeapCacheTier(offHeapCapacityBytes);
+            this.maxHeapEntries = maxHeapEntries;
+        }
+        logger.info("Off-heap cache tier enabled (heap entries: {}, off-heap capacity: {} bytes)",
+            maxHeapEntries, offHeapCapacityBytes);
+        enforceHeapLimit();
+    }
+    
+    public boolean isOffHeapTierEnabled() {
+        return offHeapTier != null;
+    }
+    
+    /**
+     * 🔓 MEMORY BUDGET: Cap the estimated bytes retained by heap entries.
+     * Least recently used entries over budget are demoted to the off-heap tier,
+     * or evicted when no tier is enabled or the entry cannot be demoted.
+     * @param maxHeapBytes Estimated heap bytes the cache may retain
+     */
+    public void setMemoryBudget(long maxHeapBytes) {
+        if (maxHeapBytes < 1) {
+            throw new IllegalArgumentException("maxHeapBytes must be positive");
+        }
+        synchronized (tierLock) {
+            this.maxHeapBytes = maxHeapBytes;
+        }
+        logger.info("Cache memory budget set to {} bytes", maxHeapBytes);
+        enforceHeapLimit();
+    }
+    
+    /**
+     * 🔓 MEMORY BUDGET: Replace the size estimator. Applies to entries stored afterwards.
+     */
+    public void setWeigher(CacheWeigher weigher) {
+        if (weigher == null) {
+            throw new IllegalArgumentException("Weigher cannot be null");
+        }
+        this.weigher = weigher;
+    }
+    
+    /**
+     * 🔓 STATISTICS: Estimated bytes retained by heap entries
+     */
+    public long getHeapBytes() {
+        return heapBytes.get();
+    }
+    
+    /**
+     * 🔓 PUT: Store data in cache with default TTL
+     */
+    public <T> void put(String key, T data) {
+        put(key, data, defaultTTL);
+    }
+    
+    /**
+     * 🔓 PUT: Store data with custom TTL
+     */
+    public <T> void put(String key, T data, long ttlMillis) {
+        if (key == null || data == null) {
+            throw new IllegalArgumentException("Key and data cannot be null");
+        }
+        
+        String type = data.getClass().getName();
+        CacheEntry entry = new CacheEntry(data, ttlMillis, type, weigh(data));
+        release(cache.put(key, entry));
+        heapBytes.addAndGet(entry.weight);
+        
+        if (offHeapTier != null) {
+            offHeapTier.remove(key);
+        }
+        enforceHeapLimit();
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("Cached: {} (TTL: {}ms, Type: {}, ~{} bytes)", 
+                key, ttlMillis, getSimpleTypeName(type), entry.weight);
+        }
+    }
+    
+    /**
+     * 🔓 GET: Retrieve cached data by key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Class<T> clazz) {
+        CacheEntry entry = lookup(key);
+        
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        
+        if (entry.isExpired()) {
+            dropHeap(key, entry);
+            evictionCount++;
+            missCount++;
+            logger.debug("Cache expired: {}", key);
+            return null;
+        }
+        
+        hitCount++;
+        entry.lastAccess = System.nanoTime();
+        try {
+            // Direct cast if types match
+            if (clazz.isInstance(entry.data)) {
+                return (T) entry.data;
+            }
+            
+            // Serialize/deserialize for type conversion
+            String json = objectMapper.writeValueAsString(entry.data);
+            return objectMapper.readValue(json, clazz);
+            
+        } catch (Exception e) {
+            logger.error("Cache deserialization failed for {}: {}", key, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+    
+    /**
+     * 🔓 GET: Retrieve with TypeReference (for Lists, Maps)
+     */
+    public <T> T get(String key, TypeReference<T> typeReference) {
+        CacheEntry entry = lookup(key);
+        
+        if (entry == null || entry.isExpired()) {
+            missCount++;
+            if (entry != null && entry.isExpired()) {
+                dropHeap(key, entry);
+                evictionCount++;
+            }
+            return null;
+        }
+        
+        hitCount++;
+        entry.lastAccess = System.nanoTime();
+        try {
+            String json = objectMapper.writeValueAsString(entry.data);
+            return objectMapper.readValue(json, typeReference);
+        } catch (Exception e) {
+            logger.error("Cache deserialization failed", e);
+            remove(key);
+            return null;
+        }
+    }
+    
+    /**
+     * 🔓 PUT BY ID: Store data under a primitive ID inside a namespace (default TTL)
+     */
+    public <T> void putById(String namespace, int id, T data) {
+        putById(namespace, id, data, defaultTTL);
+    }
+    
+    /**
+     * 🔓 PUT BY ID: Store data under a primitive ID inside a namespace
+     */
+    public <T> void putById(String namespace, int id, T data, long ttlMillis) {
+        if (namespace == null || data == null) {
+            throw new IllegalArgumentException("Namespace and data cannot be null");
+        }
+        
+        String type = data.getClass().getName();
+        CacheEntry entry = new CacheEntry(data, ttlMillis, type, weigh(data));
+        release(idSpace(namespace).put(id, entry));
+        heapBytes.addAndGet(entry.weight);
+        
+        if (offHeapTier != null) {
+            offHeapTier.remove(idKey(namespace, id));
+        }
+        enforceHeapLimit();
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("Cached: {}#{} (TTL: {}ms, Type: {}, ~{} bytes)", 
+                namespace, id, ttlMillis, getSimpleTypeName(type), entry.weight);
+        }
+    }
+    
+    /**
+     * 🔓 GET BY ID: Retrieve data stored with putById.
+     * A heap hit performs no allocation: no String key, no boxing.
+     */
+    public <T> T getById(String namespace, int id, Class<T> clazz) {
+        IntObjectStore<CacheEntry> store = idSpaces.get(namespace);
+        CacheEntry entry = store != null ? store.get(id) : null;
+        if (entry == null && offHeapTier != null) {
+            entry = promoteById(namespace, id);
+        }
+        
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        
+        if (entry.isExpired()) {
+            dropHeapById(namespace, id, entry);
+            evictionCount++;
+            missCount++;
+            return null;
+        }
+        
+        hitCount++;
+        entry.lastAccess = System.nanoTime();
+        if (clazz.isInstance(entry.data)) {
+            return clazz.cast(entry.data);
+        }
+        
+        try {
+            return objectMapper.convertValue(entry.data, clazz);
+        } catch (IllegalArgumentException e) {
+            logger.error("Cache conversion failed for {}#{}: {}", namespace, id, e.getMessage());
+            removeById(namespace, id);
+            return null;
+        }
+    }
+    
+    /**
+     * 🔓 CHECK BY ID: If an ID entry exists and is not expired
+     */
+    public boolean hasById(String namespace, int id) {
+        IntObjectStore<CacheEntry> store = idSpaces.get(namespace);
+        CacheEntry entry = store != null ? store.get(id) : null;
+        if (entry == null) {
+            return offHeapTier != null && offHeapTier.contains(idKey(namespace, id));
+        }
+        
+        if (entry.isExpired()) {
+            dropHeapById(namespace, id, entry);
+            evictionCount++;
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * 🔓 REMOVE BY ID: Remove a specific ID entry
+     */
+    public void removeById(String namespace, int id) {
+        IntObjectStore<CacheEntry> store = idSpaces.get(namespace);
+        if (store != null) {
+            release(store.remove(id));
+        }
+        if (offHeapTier != null) {
+            offHeapTier.remove(idKey(namespace, id));
+        }
+    }
+    
+    /**
+     * 🔓 NEGATIVE CACHE: Change how long "not found" results are remembered.
+     * Resets all currently known-absent IDs.
+     */
+    public void setNegativeTTL(long ttlMillis) {
+        this.absentIds = new NegativeIdCache(ttlMillis);
+    }
+    
+    /**
+     * 🔓 NEGATIVE CACHE: Record that an ID does not exist upstream
+     */
+    public void markAbsent(int id) {
+        absentIds.markAbsent(id);
+        logger.debug("Marked ID {} as absent (TTL: {}ms)", id, absentIds.getTtlMillis());
+    }
+    
+    /**
+     * 🔓 NEGATIVE CACHE: Check if an ID recently returned "not found"
+     */
+    public boolean isKnownAbsent(int id) {
+        return absentIds.isAbsent(id);
+    }
+    
+    /**
+     * 🔓 NEGATIVE CACHE: Forget a known-absent ID (e.g. after it was found after all)
+     */
+    public void clearAbsent(int id) {
+        absentIds.clearAbsent(id);
+    }
+    
+    /**
+     * 🔓 NEGATIVE CACHE: Bitmap of all IDs currently known to be absent (a copy)
+     */
+    public BitSet getKnownAbsentIds() {
+        return absentIds.snapshot();
+    }
+    
+    /**
+     * 🔓 CHECK: If key exists and is not expired
+     */
+    public boolean has(String key) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return offHeapTier != null && offHeapTier.contains(key);
+        }
+        
+        if (entry.isExpired()) {
+            dropHeap(key, entry);
+            evictionCount++;
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * 🔓 REMOVE: Remove specific key
+     */
+    public void remove(String key) {
+        release(cache.remove(key));
+        if (offHeapTier != null) {
+            offHeapTier.remove(key);
+        }
+        logger.debug("Removed from cache: {}", key);
+    }
+    
+    /**
+     * 🔓 CLEAR: Clear entire cache
+     */
+    public void clear() {
+        int sizeBefore = size();
+        cache.clear();
+        idSpaces.clear();
+        heapBytes.set(0);
+        absentIds.clear();
+        if (offHeapTier != null) {
+            offHeapTier.clear();
+        }
+        logger.info("Cache cleared (removed {} items)", sizeBefore);
+    }
+    
+    /**
+     * 🔓 CLEANUP: Remove all expired entries
+     */
+    public void cleanupExpired() {
+        int removed = 0;
+        for (Map.Entry<String, CacheEntry> e : cache.entrySet()) {
+            if (e.getValue().isExpired() && dropHeap(e.getKey(), e.getValue())) {
+                removed++;
+            }
+        }
+        for (IntObjectStore<CacheEntry> store : idSpaces.values()) {
+            removed += removeExpired(store);
+        }
+        if (offHeapTier != null) {
+            removed += offHeapTier.cleanupExpired();
+        }
+        
+        if (removed > 0) {
+            evictionCount += removed;
+            logger.debug("Cleaned up {} expired cache entries", removed);
+        }
+    }
+    
+    /**
+     * 🔓 STATISTICS: Get cache hit rate
+     */
+    public double getHitRate() {
+        int total = hitCount + missCount;
+        return total > 0 ? (double) hitCount / total * 100 : 0;
+    }
+    
+    /**
+     * 🔓 STATISTICS: Get cache size (heap and off-heap entries)
+     */
+    public int size() {
+        return heapSize() + (offHeapTier != null ? offHeapTier.size() : 0);
+    }
+    
+    /**
+     * 🔓 STATISTICS: Get number of live objects held on the heap
+     */
+    public int heapSize() {
+        int total = cache.size();
+        for (IntObjectStore<CacheEntry> store : idSpaces.values()) {
+            total += store.size();
+        }
+        return total;
+    }
+    
+    /**
+     * 🔓 STATISTICS: Get all statistics
+     */
+    public Map<String, Object> getStats() {
+        cleanupExpired();
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictionCount);
+        stats.put("hitRate", String.format("%.1f%%", getHitRate()));
+        stats.put("defaultTTL", defaultTTL + "ms");
+        stats.put("knownAbsentIds", absentIds.cardinality());
+        stats.put("negativeTTL", absentIds.getTtlMillis() + "ms");
+        stats.put("heapBytes", heapBytes.get());
+        if (maxHeapBytes != Long.MAX_VALUE) {
+            stats.put("memoryBudget", maxHeapBytes);
+        }
+        stats.put("bytesByNamespace", getBytesByNamespace());
+        
+        if (offHeapTier != null) {
+            stats.put("heapEntries", heapSize());
+            stats.put("offHeapEntries", offHeapTier.size());
+            stats.put("offHeapBytes", offHeapTier.getStoredBytes());
+            stats.put("offHeapReserved", offHeapTier.getReservedBytes());
+            stats.put("demotions", demotionCount);
+            stats.put("promotions", promotionCount);
+            stats.put("offHeapEvictions", offHeapTier.getEvictionCount());
+        }
+        return stats;
+    }
+    
+    /**
+     * 🔓 STATISTICS: Estimated heap bytes per namespace, largest first.
+     * String keys are grouped by their prefix (a trailing "_<number>" is dropped).
+     */
+    public Map<String, Long> getBytesByNamespace() {
+        Map<String, Long> totals = new HashMap<>();
+        cache.forEach((key, entry) -> totals.merge(keyNamespace(key), entry.weight, Long::sum));
+        idSpaces.forEach((namespace, store) -> store.forEach((id, entry) ->
+            totals.merge(namespace, entry.weight, Long::sum)));
+        
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        totals.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+    
+    /**
+     * 🔓 INFO: Get cache info for debugging
+     */
+    public void printCacheInfo() {
+        Map<String, Object> stats = getStats();
+        logger.info("=== CACHE STATISTICS ===");
+        stats.forEach((key, value) -> logger.info("  {}: {}", key, value));
+        
+        if (heapSize() > 0) {
+            logger.info("=== CACHE ENTRIES ===");
+            cache.forEach((key, entry) -> {
+                long ttl = entry.getTimeUntilExpiry();
+                logger.info("  {} -> {} (~{} bytes, expires in {}ms)", 
+                    key, getSimpleTypeName(entry.type), entry.weight, ttl);
+            });
+            idSpaces.forEach((namespace, store) -> store.forEach((id, entry) ->
+                logger.info("  {}#{} -> {} (~{} bytes, expires in {}ms)", 
+                    namespace, id, getSimpleTypeName(entry.type), entry.weight, entry.getTimeUntilExpiry())));
+        }
+    }
+    
+    /**
+     * 🔒 PRIVATE: Find an entry on the heap, promoting it from the off-heap tier if needed
+     */
+    private CacheEntry lookup(String key) {
+        CacheEntry entry = cache.get(key);
+        if (entry != null || offHeapTier == null) {
+            return entry;
+        }
+        return promote(key);
+    }
+    
+    /**
+     * 🔒 PRIVATE: Decode an off-heap entry back into a live object on the heap.
+     * A value put on the heap meanwhile is newer and wins over the demoted copy.
+     */
+    private CacheEntry promote(String key) {
+        CacheEntry entry = decodeOffHeap(key);
+        if (entry == null) {
+            return null;
+        }
+        CacheEntry present = cache.putIfAbsent(key, entry);
+        if (present != null) {
+            return present;
+        }
+        heapBytes.addAndGet(entry.weight);
+        enforceHeapLimit();
+        return entry;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Promote an ID entry from the off-heap tier into its namespace
+     */
+    private CacheEntry promoteById(String namespace, int id) {
+        CacheEntry entry = decodeOffHeap(idKey(namespace, id));
+        if (entry == null) {
+            return null;
+        }
+        CacheEntry present = idSpace(namespace).putIfAbsent(id, entry);
+        if (present != null) {
+            return present;
+        }
+        heapBytes.addAndGet(entry.weight);
+        enforceHeapLimit();
+        return entry;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Take an entry out of the off-heap tier and decode it into a live object
+     */
+    private CacheEntry decodeOffHeap(String key) {
+        OffHeapCacheTier.Payload payload = offHeapTier.get(key);
+        if (payload == null) {
+            return null;
+        }
+        
+        try {
+            Class<?> type = Class.forName(payload.type);
+            Object data = objectMapper.readValue(payload.bytes, type);
+            // Only a decoded entry leaves the tier; a failed decode keeps the bytes
+            offHeapTier.remove(key);
+            promotionCount++;
+            logger.debug("Promoted {} from off-heap tier ({} bytes)", key, payload.bytes.length);
+            return new CacheEntry(payload.type, data, payload.expiryTime, weigh(data));
+        } catch (Exception e) {
+            logger.warn("Failed to decode off-heap entry {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 🔒 PRIVATE: Demote least recently used heap entries once the entry limit or the
+     * memory budget is exceeded. Trims to 90% of both so demotion runs in batches
+     * rather than on every put.
+     */
+    private void enforceHeapLimit() {
+        if (heapSize() <= maxHeapEntries && heapBytes.get() <= maxHeapBytes) {
+            return;
+        }
+        
+        synchronized (tierLock) {
+            int target = maxHeapEntries - maxHeapEntries / 10;
+            long byteTarget = maxHeapBytes - maxHeapBytes / 10;
+            int heapSize = heapSize();
+            if (heapSize <= target && heapBytes.get() <= byteTarget) {
+                return;
+            }
+            
+            List<HeapSlot> candidates = new ArrayList<>(heapSize);
+            cache.forEach((key, entry) -> candidates.add(new HeapSlot(key, null, 0, entry)));
+            idSpaces.forEach((namespace, store) -> store.forEach((id, entry) ->
+                candidates.add(new HeapSlot(null, namespace, id, entry))));
+            candidates.sort(Comparator.comparingLong(slot -> slot.entry.lastAccess));
+            
+            long now = System.currentTimeMillis();
+            for (HeapSlot slot : candidates) {
+                if (heapSize <= target && heapBytes.get() <= byteTarget) {
+                    break;
+                }
+                if (demote(slot, now)) {
+                    heapSize--;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 🔒 PRIVATE: Serialize one entry into the off-heap tier and drop the heap copy.
+     * Entries that cannot move there (no tier, expired, generic type, unserializable,
+     * tier full) are evicted instead, so the heap always gets back under budget.
+     * @return true if the heap copy was removed
+     */
+    private boolean demote(HeapSlot slot, long now) {
+        CacheEntry entry = slot.entry;
+        if (entry.expiryTime >= now && offHeapTier != null) {
+            String key = slot.idSpace != null ? idKey(slot.idSpace, slot.id) : slot.key;
+            if (!isReifiable(entry.data)) {
+                // Decoding by class name would turn a List<UmapyoiCharacter> into a list of maps
+                logger.debug("Entry {} has a generic type and is evicted instead of demoted", key);
+            } else {
+                Boolean demoted = demoteToTier(slot, key);
+                if (demoted != null) {
+                    return demoted;
+                }
+            }
+        }
+        
+        if (removeSlot(slot)) {
+            evictionCount++;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Move one reifiable entry into the off-heap tier
+     * @return true if demoted, false if the heap slot changed meanwhile, null if the tier
+     *         could not take the entry
+     */
+    private Boolean demoteToTier(HeapSlot slot, String key) {
+        CacheEntry entry = slot.entry;
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(entry.data);
+            if (!offHeapTier.put(key, bytes, entry.expiryTime, entry.type)) {
+                return null;
+            }
+        } catch (Exception e) {
+            logger.debug("Entry {} could not be serialized for off-heap tier: {}", key, e.getMessage());
+            return null;
+        }
+        if (removeSlot(slot)) {
+            demotionCount++;
+            return true;
+        }
+        // Replaced concurrently; the newer heap value wins
+        offHeapTier.remove(key);
+        return false;
+    }
+    
+    /**
+     * 🔒 PRIVATE: True if the class name alone restores the value (no type parameters to lose)
+     */
+    private static boolean isReifiable(Object data) {
+        Class<?> type = data.getClass();
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.getTypeParameters().length == 0;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Remove a heap slot only if it still holds the same entry
+     */
+    private boolean removeSlot(HeapSlot slot) {
+        if (slot.idSpace == null) {
+            return dropHeap(slot.key, slot.entry);
+        }
+        return dropHeapById(slot.idSpace, slot.id, slot.entry);
+    }
+    
+    /**
+     * 🔒 PRIVATE: Remove a String-keyed heap entry if unchanged, releasing its weight
+     */
+    private boolean dropHeap(String key, CacheEntry entry) {
+        if (cache.remove(key, entry)) {
+            release(entry);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Remove an ID heap entry if unchanged, releasing its weight
+     */
+    private boolean dropHeapById(String namespace, int id, CacheEntry entry) {
+        IntObjectStore<CacheEntry> store = idSpaces.get(namespace);
+        if (store != null && store.remove(id, entry)) {
+            release(entry);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Subtract a removed or replaced entry from the heap byte total
+     */
+    private void release(CacheEntry entry) {
+        if (entry != null) {
+            heapBytes.addAndGet(-entry.weight);
+        }
+    }
+    
+    /**
+     * 🔒 PRIVATE: Estimate retained size; a failing weigher counts the entry as free
+     */
+    private long weigh(Object data) {
+        try {
+            return Math.max(0, weigher.weigh(data));
+        } catch (RuntimeException e) {
+            logger.debug("Could not weigh {}: {}", data.getClass().getSimpleName(), e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * 🔒 PRIVATE: Drop expired entries from one ID namespace
+     */
+    private int removeExpired(IntObjectStore<CacheEntry> store) {
+        long now = System.currentTimeMillis();
+        List<HeapSlot> expired = new ArrayList<>();
+        store.forEach((id, entry) -> {
+            if (entry.expiryTime < now) {
+                expired.add(new HeapSlot(null, null, id, entry));
+            }
+        });
+        int removed = 0;
+        for (HeapSlot slot : expired) {
+            if (store.remove(slot.id, slot.entry)) {
+                release(slot.entry);
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Get (or create) the store behind an ID namespace
+     */
+    private IntObjectStore<CacheEntry> idSpace(String namespace) {
+        return idSpaces.computeIfAbsent(namespace, ns -> new IntObjectStore<>());
+    }
+    
+    /**
+     * 🔒 PRIVATE: Namespace of a String key ("character_list" stays, "wiki_1001" -> "wiki")
+     */
+    private static String keyNamespace(String key) {
+        int end = key.length();
+        while (end > 0 && Character.isDigit(key.charAt(end - 1))) {
+            end--;
+        }
+        if (end < key.length() && end > 1 && key.charAt(end - 1) == '_') {
+            return key.substring(0, end - 1);
+        }
+        return key;
+    }
+    
+    /**
+     * 🔒 PRIVATE: String key used for an ID entry while it lives off-heap
+     */
+    private static String idKey(String namespace, int id) {
+        return namespace + "_" + id;
+    }
+    
+    /**
+     * 🔒 PRIVATE: Get simple class name
+     */
+    private String getSimpleTypeName(String fullName) {
+        int lastDot = fullName.lastIndexOf('.');
+        return lastDot != -1 ? fullName.substring(lastDot + 1) : fullName;
+    }
+}
\ No newline at end of file
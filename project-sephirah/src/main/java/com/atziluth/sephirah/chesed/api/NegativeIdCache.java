@@ -0,0 +1,91 @@
+package com.atziluth.sephirah.chesed.api;
+
+import java.util.BitSet;
+
+/**
+ * Remembers character IDs that the API reported as missing (404).
+ * IDs are kept in two generational bitmaps instead of per-ID timestamps:
+ * a mark lands in the current generation, and generations rotate every half TTL,
+ * so an absent ID is forgotten between ttl/2 and ttl after it was last marked.
+ * A bitmap is sized by the highest ID, not by the number of marks: IDs up to 1400 take
+ * 22 words (176 bytes) per generation, plus the BitSet and array headers.
+ */
+class NegativeIdCache {
+    private final long ttlMillis;
+    private BitSet current = new BitSet();
+    private BitSet previous = new BitSet();
+    private long generationStart = System.currentTimeMillis();
+
+    NegativeIdCache(long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Negative cache TTL must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+    }
+
+    synchronized void markAbsent(int id) {
+        if (id < 0) {
+            return;
+        }
+        rotateIfNeeded();
+        current.set(id);
+    }
+
+    synchronized void clearAbsent(int id) {
+        if (id < 0) {
+            return;
+        }
+        current.clear(id);
+        previous.clear(id);
+    }
+
+    synchronized boolean isAbsent(int id) {
+        if (id < 0) {
+            return false;
+        }
+        rotateIfNeeded();
+        return current.get(id) || previous.get(id);
+    }
+
+    /** Snapshot of all IDs currently known to be absent. */
+    synchronized BitSet snapshot() {
+        rotateIfNeeded();
+        BitSet union = (BitSet) current.clone();
+        union.or(previous);
+        return union;
+    }
+
+    synchronized int cardinality() {
+        return snapshot().cardinality();
+    }
+
+    synchronized void clear() {
+        current.clear();
+        previous.clear();
+        generationStart = System.currentTimeMillis();
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private void rotateIfNeeded() {
+        long now = System.currentTimeMillis();
+        long half = Math.max(1, ttlMillis / 2);
+        long elapsed = now - generationStart;
+        if (elapsed < half) {
+            return;
+        }
+        if (elapsed >= ttlMillis) {
+            // Both generations are older than the TTL
+            previous = new BitSet();
+            current = new BitSet();
+            generationStart = now;
+        } else {
+            // Advance by exactly one half so no mark outlives the TTL
+            previous = current;
+            current = new BitSet();
+            generationStart += half;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads GameTora's character data straight out of the raw page bytes.
+ * Next.js pages embed their props in {@code <script id="__NEXT_DATA__">}; this class finds that
+ * script by scanning bytes, then walks only {@code props.pageProps.itemData} with Jackson's
+ * streaming parser, skipping every other subtree without materializing it.
+ * No DOM and no JSON tree are built.
+ */
+final class NextDataExtractor {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final byte[] SCRIPT_ID = "id=\"__NEXT_DATA__\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SCRIPT_END = "</script".getBytes(StandardCharsets.US_ASCII);
+
+    /** The itemData fields the scraper uses. Missing fields stay null / -1. */
+    static final class ItemData {
+        int rarity = -1;
+        int[] baseStats;
+        String[] aptitude;
+        // Identity fields, present on bundled dataset records
+        long cardId = -1;
+        long baseId = -1;
+        String urlName;
+
+        boolean isEmpty() {
+            return rarity < 0 && baseStats == null && aptitude == null;
+        }
+    }
+
+    private NextDataExtractor() {
+    }
+
+    /**
+     * Locate the __NEXT_DATA__ payload in an HTML response and parse its itemData.
+     * @return parsed item data, or null if the script or itemData is missing
+     */
+    static ItemData extract(byte[] html) throws IOException {
+        int idAt = indexOf(html, SCRIPT_ID, 0, html.length);
+        if (idAt < 0) {
+            return null;
+        }
+        int start = indexOf(html, new byte[] {'>'}, idAt, html.length);
+        if (start < 0) {
+            return null;
+        }
+        start++;
+        int end = indexOf(html, SCRIPT_END, start, html.length);
+        if (end < 0) {
+            return null;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(html, start, end - start)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * Parse itemData from an already isolated __NEXT_DATA__ JSON document.
+     */
+    static ItemData extract(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parse(parser);
+        }
+    }
+
+    private static ItemData parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT
+            || !seekObjectField(parser, "props")
+            || !seekObjectField(parser, "pageProps")
+            || !seekObjectField(parser, "itemData")) {
+            return null;
+        }
+
+        ItemData item = new ItemData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!readItemField(parser, field, value, item)) {
+                parser.skipChildren();
+            }
+        }
+        // The rest of the document is never read
+        return item.isEmpty() ? null : item;
+    }
+
+    /**
+     * Find the top-level {@code buildId} of a __NEXT_DATA__ payload, needed to address
+     * the site's /_next/data/{buildId}/... bundles.
+     * @return build ID, or null if the page has none
+     */
+    static String extractBuildId(byte[] html) throws IOException {
+        int idAt = indexOf(html, SCRIPT_ID, 0, html.length);
+        int start = idAt < 0 ? -1 : indexOf(html, new byte[] {'>'}, idAt, html.length);
+        int end = start < 0 ? -1 : indexOf(html, SCRIPT_END, start + 1, html.length);
+        if (end < 0) {
+            return null;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(html, start + 1, end - start - 1)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("buildId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stream a whole JSON document and hand every object carrying {@code base_stats}
+     * to the sink, wherever it is nested. Used to decode bundled datasets that list
+     * many itemData records at once.
+     * @return number of records found
+     */
+    static int scanRecords(JsonParser parser, Consumer<ItemData> sink) throws IOException {
+        JsonToken token = parser.nextToken();
+        return token == null ? 0 : scanValue(parser, token, sink);
+    }
+
+    private static int scanValue(JsonParser parser, JsonToken token, Consumer<ItemData> sink) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            ItemData item = new ItemData();
+            int found = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!readItemField(parser, field, value, item)) {
+                    found += scanValue(parser, value, sink);
+                }
+            }
+            if (item.baseStats != null) {
+                sink.accept(item);
+                found++;
+            }
+            return found;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            int found = 0;
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                found += scanValue(parser, element, sink);
+            }
+            return found;
+        }
+        return 0; // Scalars are already consumed
+    }
+
+    /**
+     * Read one known itemData field into the record.
+     * @return false if the field is not one the scraper uses (value left unread)
+     */
+    private static boolean readItemField(JsonParser parser, String field, JsonToken value, ItemData item)
+            throws IOException {
+        switch (field) {
+            case "rarity":
+                if (!value.isScalarValue()) {
+                    return false;
+                }
+                item.rarity = parser.getValueAsInt(-1);
+                return true;
+            case "base_stats":
+                if (value != JsonToken.START_ARRAY) {
+                    return false;
+                }
+                item.baseStats = readIntArray(parser);
+                return true;
+            case "aptitude":
+                if (value != JsonToken.START_ARRAY) {
+                    return false;
+                }
+                item.aptitude = readTextArray(parser);
+                return true;
+            case "card_id":
+            case "id":
+                if (!value.isNumeric() && value != JsonToken.VALUE_STRING) {
+                    return false;
+                }
+                long id = parser.getValueAsLong(-1);
+                if ("card_id".equals(field) || item.cardId < 0) {
+                    item.cardId = id;
+                }
+                return true;
+            case "char_id":
+                if (!value.isScalarValue()) {
+                    return false;
+                }
+                item.baseId = parser.getValueAsLong(-1);
+                return true;
+            case "url_name":
+                if (value != JsonToken.VALUE_STRING) {
+                    return false;
+                }
+                item.urlName = parser.getText();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Advance through the current object until the named field, which must hold an object.
+     * Leaves the parser on that field's START_OBJECT.
+     */
+    private static boolean seekObjectField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field)) {
+                return value == JsonToken.START_OBJECT;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static int[] readIntArray(JsonParser parser) throws IOException {
+        int[] values = new int[8];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token.isNumeric() ? parser.getIntValue() : parser.getValueAsInt(0);
+            parser.skipChildren();
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static String[] readTextArray(JsonParser parser) throws IOException {
+        String[] values = new String[12];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token.isScalarValue() ? parser.getValueAsString("") : "";
+            parser.skipChildren();
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from, int to) {
+        int last = to - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
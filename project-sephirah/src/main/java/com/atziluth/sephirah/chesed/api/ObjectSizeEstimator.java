@@ -0,0 +1,190 @@
+package com.atziluth.sephirah.chesed.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default {@link CacheWeigher}: walks the object graph and adds up estimated shallow sizes.
+ * Assumes a 64-bit JVM with compressed references (12-byte headers, 4-byte references,
+ * 8-byte alignment) and compact Latin-1 strings where possible.
+ * JDK collections and maps are sized from their element counts rather than by reflection,
+ * since their internals are not accessible; other JDK types count as a small opaque object.
+ */
+public class ObjectSizeEstimator implements CacheWeigher {
+    private static final Logger logger = LoggerFactory.getLogger(ObjectSizeEstimator.class);
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAX_DEPTH = 32;
+
+    /** Shallow size and reference fields of a class, computed once per class. */
+    private static final class Layout {
+        final long shallowSize;
+        final Field[] referenceFields;
+
+        Layout(long shallowSize, Field[] referenceFields) {
+            this.shallowSize = shallowSize;
+            this.referenceFields = referenceFields;
+        }
+    }
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return computeLayout(type);
+        }
+    };
+
+    @Override
+    public long weigh(Object value) {
+        return sizeOf(value, Collections.newSetFromMap(new IdentityHashMap<>()), 0);
+    }
+
+    private long sizeOf(Object value, Set<Object> seen, int depth) {
+        if (value == null || depth > MAX_DEPTH || !seen.add(value)) {
+            return 0;
+        }
+
+        Class<?> type = value.getClass();
+        if (value instanceof String) {
+            return stringSize((String) value);
+        }
+        if (value instanceof Enum || value instanceof Class) {
+            return 0; // Shared singletons, not retained by the cache
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return align(OBJECT_HEADER + 8);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return align(OBJECT_HEADER + 4);
+        }
+        if (type.isArray()) {
+            return arraySize(value, seen, depth);
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+            if (value instanceof Set) {
+                size += 32L * collection.size(); // Hash node per element
+            }
+            for (Object element : collection) {
+                size += sizeOf(element, seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = align(OBJECT_HEADER + 36) + align(ARRAY_HEADER + (long) REFERENCE * tableCapacity(map.size()));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32; // Hash node
+                size += sizeOf(entry.getKey(), seen, depth + 1);
+                size += sizeOf(entry.getValue(), seen, depth + 1);
+            }
+            return size;
+        }
+        if (type.getName().startsWith("java.")) {
+            return align(OBJECT_HEADER + 4);
+        }
+
+        Layout layout = LAYOUTS.get(type);
+        long size = layout.shallowSize;
+        for (Field field : layout.referenceFields) {
+            try {
+                size += sizeOf(field.get(value), seen, depth + 1);
+            } catch (IllegalAccessException e) {
+                // Field became inaccessible; count the reference only
+            }
+        }
+        return size;
+    }
+
+    private long arraySize(Object array, Set<Object> seen, int depth) {
+        int length = Array.getLength(array);
+        Class<?> component = array.getClass().getComponentType();
+        if (component.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) primitiveSize(component) * length);
+        }
+        long size = align(ARRAY_HEADER + (long) REFERENCE * length);
+        Object[] elements = (Object[]) array;
+        for (Object element : elements) {
+            size += sizeOf(element, seen, depth + 1);
+        }
+        return size;
+    }
+
+    private static long stringSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                latin1 = false;
+                break;
+            }
+        }
+        long bytes = latin1 ? value.length() : 2L * value.length();
+        // String object (hash, coder, value reference) + backing byte[]
+        return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + bytes);
+    }
+
+    private static Layout computeLayout(Class<?> type) {
+        long shallow = OBJECT_HEADER;
+        List<Field> references = new ArrayList<>();
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> fieldType = field.getType();
+                if (fieldType.isPrimitive()) {
+                    shallow += primitiveSize(fieldType);
+                    continue;
+                }
+                shallow += REFERENCE;
+                try {
+                    field.setAccessible(true);
+                    references.add(field);
+                } catch (RuntimeException e) {
+                    logger.debug("Cannot inspect {}.{} for size estimation", c.getSimpleName(), field.getName());
+                }
+            }
+        }
+        return new Layout(align(shallow), references.toArray(new Field[0]));
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static int tableCapacity(int entries) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < entries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,228 @@
+package com.atziluth.sephirah.chesed.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Second cache tier that keeps serialized entries outside the Java heap.
+ * Bytes are appended to fixed-size direct {@link ByteBuffer} segments used as a ring:
+ * when the ring wraps, every entry still living in the reused segment is dropped.
+ * This keeps the tier free of fragmentation and the GC never has to trace cached objects.
+ */
+class OffHeapCacheTier {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCacheTier.class);
+
+    static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024; // 1 MB
+
+    /** Location of one serialized entry inside the segment ring. */
+    private static final class Slot {
+        final int segment;
+        final int offset;
+        final int length;
+        final long expiryTime;
+        final String type;
+
+        Slot(int segment, int offset, int length, long expiryTime, String type) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expiryTime = expiryTime;
+            this.type = type;
+        }
+
+        boolean isExpired(long now) {
+            return now > expiryTime;
+        }
+    }
+
+    /** Serialized payload handed back to the heap tier on promotion. */
+    static final class Payload {
+        final byte[] bytes;
+        final long expiryTime;
+        final String type;
+
+        Payload(byte[] bytes, long expiryTime, String type) {
+            this.bytes = bytes;
+            this.expiryTime = expiryTime;
+            this.type = type;
+        }
+    }
+
+    private final int segmentSize;
+    private final int maxSegments;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final Map<String, Slot> index = new LinkedHashMap<>();
+
+    private int writeSegment = 0;
+    private int writeOffset = 0;
+    private long storedBytes = 0;
+    private int evictionCount = 0;
+
+    OffHeapCacheTier(long capacityBytes) {
+        this(capacityBytes, DEFAULT_SEGMENT_SIZE);
+    }
+
+    OffHeapCacheTier(long capacityBytes, int segmentSize) {
+        if (capacityBytes < segmentSize || segmentSize <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity must hold at least one segment of " + segmentSize + " bytes");
+        }
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, capacityBytes / segmentSize);
+    }
+
+    /**
+     * Store serialized bytes for a key, replacing any previous copy.
+     * @return false if the entry is larger than a single segment and was not stored
+     */
+    synchronized boolean put(String key, byte[] bytes, long expiryTime, String type) {
+        if (bytes.length > segmentSize) {
+            logger.debug("Entry {} ({} bytes) exceeds off-heap segment size, not demoted", key, bytes.length);
+            return false;
+        }
+        remove(key);
+
+        if (segments.isEmpty() || writeOffset + bytes.length > segmentSize) {
+            advanceSegment();
+        }
+
+        ByteBuffer target = segments.get(writeSegment).duplicate();
+        target.position(writeOffset);
+        target.put(bytes);
+
+        index.put(key, new Slot(writeSegment, writeOffset, bytes.length, expiryTime, type));
+        writeOffset += bytes.length;
+        storedBytes += bytes.length;
+        return true;
+    }
+
+    /**
+     * Copy an entry back onto the heap. Expired entries are dropped and reported as missing.
+     */
+    synchronized Payload get(String key) {
+        Slot slot = index.get(key);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.isExpired(System.currentTimeMillis())) {
+            remove(key);
+            evictionCount++;
+            return null;
+        }
+
+        byte[] bytes = new byte[slot.length];
+        ByteBuffer source = segments.get(slot.segment).duplicate();
+        source.position(slot.offset);
+        source.get(bytes);
+        return new Payload(bytes, slot.expiryTime, slot.type);
+    }
+
+    synchronized boolean contains(String key) {
+        Slot slot = index.get(key);
+        if (slot == null) {
+            return false;
+        }
+        if (slot.isExpired(System.currentTimeMillis())) {
+            remove(key);
+            evictionCount++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forget an entry. Its bytes are reclaimed when the ring next reuses the segment.
+     */
+    synchronized void remove(String key) {
+        Slot slot = index.remove(key);
+        if (slot != null) {
+            storedBytes -= slot.length;
+        }
+    }
+
+    synchronized int cleanupExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Map.Entry<String, Slot>> it = index.entrySet().iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next().getValue();
+            if (slot.isExpired(now)) {
+                storedBytes -= slot.length;
+                it.remove();
+                removed++;
+            }
+        }
+        evictionCount += removed;
+        return removed;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        storedBytes = 0;
+        writeSegment = 0;
+        writeOffset = 0;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    /** Bytes referenced by live entries. */
+    synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /** Direct memory reserved by allocated segments. */
+    synchronized long getReservedBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Move the write position to the next segment, allocating it lazily or
+     * recycling the oldest one (and dropping its entries) once the ring is full.
+     */
+    private void advanceSegment() {
+        if (segments.isEmpty()) {
+            segments.add(ByteBuffer.allocateDirect(segmentSize));
+            writeSegment = 0;
+            writeOffset = 0;
+            return;
+        }
+
+        int next = (writeSegment + 1) % maxSegments;
+        if (next >= segments.size()) {
+            segments.add(ByteBuffer.allocateDirect(segmentSize));
+        } else {
+            evictSegment(next);
+        }
+        writeSegment = next;
+        writeOffset = 0;
+    }
+
+    private void evictSegment(int segment) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Slot>> it = index.entrySet().iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next().getValue();
+            if (slot.segment == segment) {
+                storedBytes -= slot.length;
+                it.remove();
+                removed++;
+            }
+        }
+        evictionCount += removed;
+        if (removed > 0) {
+            logger.debug("Recycled off-heap segment {} (dropped {} entries)", segment, removed);
+        }
+    }
+}
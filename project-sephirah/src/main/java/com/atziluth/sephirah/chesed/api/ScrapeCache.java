@@ -0,0 +1,254 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent cache of GameTora scrape results, keyed by the resolved page URL.
+ * Each entry keeps the extracted fields plus the ETag / Last-Modified validators of the response.
+ * Entries younger than the max age are served without any request; older ones are revalidated
+ * with a conditional request, and a 304 answer keeps the stored fields.
+ * The cache is a JSON file. Changes mark it dirty and one write follows shortly after
+ * (bulk imports and {@link #flush()} write at once), so a burst of scrapes costs one
+ * write rather than one per page. Updates and the write share one lock.
+ */
+public class ScrapeCache {
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeCache.class);
+
+    public static final String DEFAULT_PATH = "data/cache/gametora-scrape-cache.json";
+    public static final long DEFAULT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+    /** Changes within this window after the first one are written together */
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scrape-cache-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** One cached scrape. Public fields so Jackson can persist it as-is. */
+    public static class Entry {
+        public Map<String, Object> fields = new LinkedHashMap<>();
+        public String etag;
+        public String lastModified;
+        /** When the fields were last downloaded */
+        public long fetchedAt;
+        /** When the server last confirmed the fields (download or 304); updated under the cache lock */
+        public volatile long validatedAt;
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    private final Path file;
+    private final ObjectMapper mapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long maxAgeMillis = DEFAULT_MAX_AGE_MS;
+    /** Guarded by this: entries changed since the last write, and whether a write is scheduled */
+    private boolean dirty = false;
+    private boolean flushScheduled = false;
+
+    private final AtomicInteger freshHits = new AtomicInteger();
+    private final AtomicInteger revalidations = new AtomicInteger();
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    public ScrapeCache() {
+        this(Paths.get(DEFAULT_PATH));
+    }
+
+    public ScrapeCache(Path file) {
+        this.file = file;
+        this.mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        load();
+    }
+
+    /**
+     * How long an entry is served without contacting GameTora
+     */
+    public void setMaxAge(long maxAgeMillis) {
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Max age cannot be negative");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public long getMaxAge() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * @return the cached entry for a URL (fresh or stale), or null
+     */
+    public Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * @return true if the entry may be served without revalidation
+     */
+    public boolean isFresh(Entry entry) {
+        return entry != null && System.currentTimeMillis() - entry.validatedAt < maxAgeMillis;
+    }
+
+    /**
+     * Store freshly downloaded fields and the response validators
+     */
+    public void put(String url, Map<String, Object> fields, String etag, String lastModified) {
+        Entry entry = new Entry();
+        entry.fields = new LinkedHashMap<>(fields);
+        entry.etag = etag;
+        entry.lastModified = lastModified;
+        entry.fetchedAt = System.currentTimeMillis();
+        entry.validatedAt = entry.fetchedAt;
+        synchronized (this) {
+            entries.put(url, entry);
+            markDirty();
+        }
+        downloads.incrementAndGet();
+    }
+
+    /**
+     * Store many downloaded results at once with a single write (used by bulk imports).
+     * Bulk sources carry no per-page validators, so these entries revalidate with a full fetch.
+     */
+    public void putAll(Map<String, Map<String, Object>> fieldsByUrl) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            fieldsByUrl.forEach((url, fields) -> {
+                Entry entry = new Entry();
+                entry.fields = new LinkedHashMap<>(fields);
+                entry.fetchedAt = now;
+                entry.validatedAt = now;
+                entries.put(url, entry);
+            });
+            dirty = true;
+            // End of a batch: write now
+            flush();
+        }
+        downloads.addAndGet(fieldsByUrl.size());
+    }
+    
+    /**
+     * Record a 304 answer: the stored fields are still current
+     */
+    public void markRevalidated(String url) {
+        synchronized (this) {
+            Entry entry = entries.get(url);
+            if (entry == null) {
+                return;
+            }
+            entry.validatedAt = System.currentTimeMillis();
+            markDirty();
+        }
+        revalidations.incrementAndGet();
+    }
+
+    void recordFreshHit() {
+        freshHits.incrementAndGet();
+    }
+
+    public synchronized void remove(String url) {
+        if (entries.remove(url) != null) {
+            markDirty();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        markDirty();
+    }
+
+    /**
+     * Write pending changes now (end of a batch, shutdown)
+     */
+    public synchronized void flush() {
+        flushScheduled = false;
+        if (dirty) {
+            dirty = false;
+            save();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("freshHits", freshHits.get());
+        stats.put("revalidated", revalidations.get());
+        stats.put("downloads", downloads.get());
+        stats.put("maxAge", maxAgeMillis + "ms");
+        stats.put("file", file.toString());
+        return stats;
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Map<String, Entry> stored = mapper.readValue(file.toFile(), new TypeReference<Map<String, Entry>>() {});
+            if (stored != null) {
+                entries.putAll(stored);
+            }
+            logger.info("Loaded {} cached GameTora scrapes from {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable scrape cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Schedule one write for this and any following changes. Caller holds the lock.
+     */
+    private void markDirty() {
+        dirty = true;
+        if (!flushScheduled) {
+            flushScheduled = true;
+            FLUSHER.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write the whole cache to a temp file and move it into place,
+     * so a crash never leaves a half-written cache behind. Caller holds the lock,
+     * so no entry changes while it is serialized.
+     */
+    private void save() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            mapper.writeValue(temp.toFile(), entries);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to persist scrape cache {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Instance-based scraping engine for GameTora pages.
+ * Jobs run on a bounded worker pool fed by a bounded queue; when the queue is full the
+ * submitting thread runs the job itself, which slows producers down instead of dropping work.
+ * Every job that has to go to the network passes a per-host gate that caps concurrent
+ * requests and spaces request starts by a minimum delay, so bulk enrichment stays polite
+ * to the site; pages fresh in the scrape cache skip the gate.
+ */
+public class ScrapeEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeEngine.class);
+
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_MAX_PER_HOST = 2;
+    public static final long DEFAULT_MIN_DELAY_MS = 500;
+
+    /** Engine used by the static scraping entry points and the character service */
+    private static final class SharedHolder {
+        static final ScrapeEngine INSTANCE = new ScrapeEngine();
+    }
+
+    /** Concurrency and pacing limits for one host; hedged fetches draw on the same permits. */
+    private static final class HostGate implements UmamusumeWikiScraper.HostPermits {
+        private final Semaphore permits;
+        private final long minDelayMillis;
+        private long nextStartAt = 0;
+
+        HostGate(int maxConcurrent, long minDelayMillis) {
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.minDelayMillis = minDelayMillis;
+        }
+
+        @Override
+        public void acquire() throws InterruptedException {
+            permits.acquire();
+            try {
+                long wait = reserveStartSlot();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+            } catch (InterruptedException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public long tryReserve() {
+            if (!permits.tryAcquire()) {
+                return -1;
+            }
+            return reserveStartSlot();
+        }
+
+        @Override
+        public void release() {
+            permits.release();
+        }
+
+        /**
+         * @return milliseconds until the reserved start
+         */
+        private synchronized long reserveStartSlot() {
+            long now = System.currentTimeMillis();
+            long start = Math.max(now, nextStartAt);
+            nextStartAt = start + minDelayMillis;
+            return start - now;
+        }
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final Map<String, HostGate> hostGates = new ConcurrentHashMap<>();
+    private final int maxPerHost;
+    private final long minDelayMillis;
+
+    private final AtomicInteger completedJobs = new AtomicInteger();
+    private final AtomicInteger failedJobs = new AtomicInteger();
+
+    /**
+     * Engine shared by the static scraping entry points and the character service, so every
+     * GameTora request in the process goes through the same per-host limits.
+     * Its workers are daemons that time out when idle, so it is never shut down.
+     */
+    public static ScrapeEngine shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    public ScrapeEngine() {
+        this(DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_PER_HOST, DEFAULT_MIN_DELAY_MS);
+    }
+
+    /**
+     * @param workerThreads Size of the worker pool
+     * @param queueCapacity Jobs waiting for a worker before submitters run jobs themselves
+     * @param maxPerHost Concurrent requests allowed against one host
+     * @param minDelayMillis Minimum gap between request starts against one host
+     */
+    public ScrapeEngine(int workerThreads, int queueCapacity, int maxPerHost, long minDelayMillis) {
+        if (workerThreads < 1 || queueCapacity < 1 || maxPerHost < 1 || minDelayMillis < 0) {
+            throw new IllegalArgumentException("Invalid scrape engine limits");
+        }
+        this.maxPerHost = maxPerHost;
+        this.minDelayMillis = minDelayMillis;
+        this.workers = new ThreadPoolExecutor(
+            workerThreads, workerThreads,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            daemonThreads(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+        logger.info("ScrapeEngine started ({} workers, queue {}, {} per host, {}ms spacing)",
+            workerThreads, queueCapacity, maxPerHost, minDelayMillis);
+    }
+
+    /**
+     * Scrape one GameTora URL.
+     * @param url Page to scrape
+     * @return future completing with the scraped model (empty model if the page failed)
+     */
+    public CompletableFuture<Umamusume> scrape(String url) {
+        Objects.requireNonNull(url, "url");
+        return submit(url, true, () -> UmamusumeWikiScraper.scrapeFromUrl(url, url));
+    }
+
+    /**
+     * Scrape and merge GameTora data for one API character, like
+     * {@link UmamusumeWikiScraper#enrichCharacterData} but on the worker pool.
+     */
+    public CompletableFuture<Umamusume> enrich(UmapyoiCharacter character) {
+        String url = character != null ? UmamusumeWikiScraper.resolveWikiUrl(character) : null;
+        if (url == null) {
+            return CompletableFuture.completedFuture(new Umamusume());
+        }
+        String identifier = UmamusumeWikiScraper.describe(character);
+        String alternateUrl = UmamusumeWikiScraper.resolveAlternateWikiUrl(character);
+        // Both pages live on the same host; each attempt takes its own permit for as long as
+        // its fetch runs, so the job itself is not gated
+        HostGate gate = gateFor(url);
+        return submit(url, false, () -> UmamusumeWikiScraper.mergeWithApiData(character,
+            UmamusumeWikiScraper.scrapeHedged(url, alternateUrl, identifier, gate)));
+    }
+
+    /**
+     * Enrich a whole roster in parallel.
+     * @return one future per character, in input order
+     */
+    public List<CompletableFuture<Umamusume>> enrichAll(Collection<UmapyoiCharacter> characters) {
+        List<CompletableFuture<Umamusume>> futures = new ArrayList<>(characters.size());
+        for (UmapyoiCharacter character : characters) {
+            futures.add(enrich(character));
+        }
+        return futures;
+    }
+
+    /**
+     * Enrich a whole roster and collect the results once every job finished.
+     */
+    public CompletableFuture<List<Umamusume>> enrichAllJoined(Collection<UmapyoiCharacter> characters) {
+        List<CompletableFuture<Umamusume>> futures = enrichAll(characters);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(v -> futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList()));
+    }
+
+    public int getQueuedJobs() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveJobs() {
+        return workers.getActiveCount();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "workers", workers.getMaximumPoolSize(),
+            "active", workers.getActiveCount(),
+            "queued", workers.getQueue().size(),
+            "completed", completedJobs.get(),
+            "failed", failedJobs.get(),
+            "hosts", hostGates.size()
+        );
+    }
+
+    /**
+     * Stop accepting jobs and wait briefly for running ones.
+     */
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("ScrapeEngine shutdown ({} jobs completed, {} failed)", completedJobs.get(), failedJobs.get());
+    }
+
+    /**
+     * @param gateJob whether the job holds a host permit while it runs; jobs that gate their
+     *                own fetches pass false
+     */
+    private <T> CompletableFuture<T> submit(String url, boolean gateJob, Supplier<T> job) {
+        HostGate gate = gateFor(url);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (workers.isShutdown()) {
+            // CallerRunsPolicy silently drops jobs once shut down; fail the future instead
+            future.completeExceptionally(new IllegalStateException("ScrapeEngine is shut down"));
+            return future;
+        }
+        workers.execute(() -> {
+            // Cached pages make no request, so they need neither a slot nor spacing
+            boolean gated = gateJob && !UmamusumeWikiScraper.isFreshlyCached(url);
+            try {
+                if (gated) {
+                    gate.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedJobs.incrementAndGet();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(job.get());
+                completedJobs.incrementAndGet();
+            } catch (RuntimeException e) {
+                failedJobs.incrementAndGet();
+                logger.warn("Scrape job for {} failed: {}", url, e.getMessage());
+                future.completeExceptionally(e);
+            } finally {
+                if (gated) {
+                    gate.release();
+                }
+            }
+        });
+        return future;
+    }
+
+    private HostGate gateFor(String url) {
+        return hostGates.computeIfAbsent(hostOf(url), host -> new HostGate(maxPerHost, minDelayMillis));
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "scrape-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
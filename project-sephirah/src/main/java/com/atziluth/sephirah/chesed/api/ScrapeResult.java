@@ -0,0 +1,219 @@
+package com.atziluth.sephirah.chesed.api;
+
+import com.atziluth.sephirah.chesed.model.TrackProficiency;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutable record the GameTora extractors write into.
+ * Stats are primitive slots in base_stats order, aptitude grades are packed one byte per slot
+ * in itemData aptitude order, and skill lists are pre-sized, so an extraction allocates no
+ * boxed values and no hash entries. The string-keyed map form exists only for the on-disk
+ * {@link ScrapeCache} format.
+ */
+final class ScrapeResult {
+    static final int UNSET = -1;
+
+    // Stat slots, in itemData base_stats order
+    static final int SPEED = 0;
+    static final int STAMINA = 1;
+    static final int POWER = 2;
+    static final int GUTS = 3;
+    static final int INTELLIGENCE = 4;
+    static final int STAT_SLOTS = 5;
+
+    // Aptitude slots, in itemData aptitude order
+    static final int TURF = 0;
+    static final int DIRT = 1;
+    static final int SHORT = 2;
+    static final int MILE = 3;
+    static final int MEDIUM = 4;
+    static final int LONG = 5;
+    static final int FRONT = 6;
+    static final int PACE = 7;
+    static final int LATE = 8;
+    static final int END = 9;
+    static final int APTITUDE_SLOTS = 10;
+
+    private static final int EXPECTED_SKILLS = 16;
+    private static final int EXPECTED_RELATIONSHIPS = 8;
+
+    // Keys of the persisted map form
+    private static final String[] STAT_KEYS = {"speed", "stamina", "power", "guts", "intelligence"};
+    private static final String[] APTITUDE_KEYS = {
+        "surfaceTurf", "surfaceDirt",
+        "distanceShort", "distanceMile", "distanceMedium", "distanceLong",
+        "strategyFront", "strategyPace", "strategyLate", "strategyEnd"
+    };
+    private static final TrackProficiency.Grade[] GRADES = TrackProficiency.Grade.values();
+
+    final int[] stats = new int[STAT_SLOTS];
+    /** Grade ordinal + 1 per aptitude slot; 0 means not extracted. Higher is better. */
+    final byte[] grades = new byte[APTITUDE_SLOTS];
+    Umamusume.Rarity rarity;
+    String type;
+    TrackProficiency.TrackType trackType;
+    final List<String> skills = new ArrayList<>(EXPECTED_SKILLS);
+    final List<String> relationships = new ArrayList<>(EXPECTED_RELATIONSHIPS);
+    String biography;
+
+    ScrapeResult() {
+        Arrays.fill(stats, UNSET);
+    }
+
+    void setGrade(int slot, String letter) {
+        TrackProficiency.Grade grade = TrackProficiency.Grade.fromLetter(letter);
+        grades[slot] = grade != null ? (byte) (grade.ordinal() + 1) : 0;
+    }
+
+    /**
+     * @return grade of an aptitude slot, or null if it was not extracted
+     */
+    TrackProficiency.Grade grade(int slot) {
+        return grades[slot] > 0 ? GRADES[grades[slot] - 1] : null;
+    }
+
+    String gradeLetter(int slot) {
+        TrackProficiency.Grade grade = grade(slot);
+        return grade != null ? grade.name() : null;
+    }
+
+    boolean hasStat(int slot) {
+        return stats[slot] != UNSET;
+    }
+
+    /**
+     * Number of extracted fields, counted the way the extractors' thresholds expect
+     * (each stat, grade and scalar is one field; each non-empty list is one field)
+     */
+    int fieldCount() {
+        int count = 0;
+        for (int value : stats) {
+            if (value != UNSET) {
+                count++;
+            }
+        }
+        for (byte grade : grades) {
+            if (grade != 0) {
+                count++;
+            }
+        }
+        if (rarity != null) count++;
+        if (type != null) count++;
+        if (trackType != null) count++;
+        if (biography != null) count++;
+        if (!skills.isEmpty()) count++;
+        if (!relationships.isEmpty()) count++;
+        return count;
+    }
+
+    void clear() {
+        Arrays.fill(stats, UNSET);
+        Arrays.fill(grades, (byte) 0);
+        rarity = null;
+        type = null;
+        trackType = null;
+        biography = null;
+        skills.clear();
+        relationships.clear();
+    }
+
+    /**
+     * Persisted form, keyed like the original extraction map
+     */
+    Map<String, Object> toFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int slot = 0; slot < STAT_SLOTS; slot++) {
+            if (stats[slot] != UNSET) {
+                fields.put(STAT_KEYS[slot], stats[slot]);
+            }
+        }
+        if (rarity != null) {
+            fields.put("rarity", rarity.name());
+        }
+        if (type != null) {
+            fields.put("type", type);
+        }
+        if (trackType != null) {
+            fields.put("trackType", trackType.getDisplayName());
+        }
+        for (int slot = 0; slot < APTITUDE_SLOTS; slot++) {
+            String letter = gradeLetter(slot);
+            if (letter != null) {
+                fields.put(APTITUDE_KEYS[slot], letter);
+            }
+        }
+        if (!skills.isEmpty()) {
+            fields.put("skills", new ArrayList<>(skills));
+        }
+        if (biography != null) {
+            fields.put("biography", biography);
+        }
+        if (!relationships.isEmpty()) {
+            fields.put("relationships", new ArrayList<>(relationships));
+        }
+        return fields;
+    }
+
+    /**
+     * Decode the persisted form. Unknown keys and malformed values are ignored.
+     */
+    static ScrapeResult fromFields(Map<String, Object> fields) {
+        ScrapeResult result = new ScrapeResult();
+        if (fields == null) {
+            return result;
+        }
+        for (int slot = 0; slot < STAT_SLOTS; slot++) {
+            Object value = fields.get(STAT_KEYS[slot]);
+            if (value instanceof Number) {
+                result.stats[slot] = ((Number) value).intValue();
+            }
+        }
+        for (int slot = 0; slot < APTITUDE_SLOTS; slot++) {
+            Object value = fields.get(APTITUDE_KEYS[slot]);
+            if (value instanceof String) {
+                result.setGrade(slot, (String) value);
+            }
+        }
+        Object rarity = fields.get("rarity");
+        if (rarity instanceof String) {
+            try {
+                result.rarity = Umamusume.Rarity.valueOf((String) rarity);
+            } catch (IllegalArgumentException e) {
+                result.rarity = Umamusume.Rarity.N;
+            }
+        }
+        Object type = fields.get("type");
+        if (type instanceof String) {
+            result.type = (String) type;
+        }
+        Object trackType = fields.get("trackType");
+        if (trackType instanceof String) {
+            result.trackType = "Dirt".equalsIgnoreCase((String) trackType)
+                ? TrackProficiency.TrackType.DIRT
+                : TrackProficiency.TrackType.TURF;
+        }
+        Object biography = fields.get("biography");
+        if (biography instanceof String) {
+            result.biography = (String) biography;
+        }
+        copyStrings(fields.get("skills"), result.skills);
+        copyStrings(fields.get("relationships"), result.relationships);
+        return result;
+    }
+
+    private static void copyStrings(Object value, List<String> target) {
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                if (element instanceof String) {
+                    target.add((String) element);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.atziluth.sephirah.chesed.api;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and latency histograms for GameTora scraping.
+ * Tracks which extraction path served each page, how long fetch / parse / extract took,
+ * how many bytes were downloaded and why scrapes failed. A rising HTML-path or
+ * layout-change count is the signal that GameTora changed its page structure.
+ * All updates are lock-free, so recording from scrape workers costs a few atomic adds.
+ */
+public class ScraperMetrics {
+
+    /** How a page's fields were extracted */
+    public enum ExtractionPath {
+        /** __NEXT_DATA__ streamed from the raw bytes, no DOM */
+        JSON_STREAM,
+        /** __NEXT_DATA__ read from the parsed DOM */
+        JSON_DOM,
+        /** CSS-class based HTML extraction */
+        HTML
+    }
+
+    /** Why a scrape produced no usable data */
+    public enum Failure {
+        TIMEOUT,
+        HTTP_STATUS,
+        /** Page downloaded fine but too few fields could be extracted */
+        LAYOUT_CHANGE,
+        NETWORK,
+        UNEXPECTED
+    }
+
+    /**
+     * Latency histogram with power-of-two millisecond buckets (&lt;1, &lt;2, &lt;4 ... &lt;32768, overflow).
+     * Percentiles are reported as the upper bound of the bucket holding them.
+     */
+    public static final class LatencyHistogram {
+        private static final int BUCKETS = 17;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long millis) {
+            long value = Math.max(0, millis);
+            int bucket = value == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalMillis.addAndGet(value);
+            maxMillis.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMeanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) totalMillis.get() / n;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis.get();
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return upper bound (ms) of the bucket containing that quantile, 0 if empty
+         */
+        public long percentile(double quantile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * n));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets.get(bucket);
+                if (seen >= rank) {
+                    return bucket == BUCKETS - 1 ? maxMillis.get() : 1L << bucket;
+                }
+            }
+            return maxMillis.get();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", getCount());
+            map.put("mean", String.format("%.1fms", getMeanMillis()));
+            map.put("p50", "<" + percentile(0.50) + "ms");
+            map.put("p90", "<" + percentile(0.90) + "ms");
+            map.put("p99", "<" + percentile(0.99) + "ms");
+            map.put("max", getMaxMillis() + "ms");
+            return map;
+        }
+    }
+
+    private final LatencyHistogram fetch = new LatencyHistogram();
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram extract = new LatencyHistogram();
+    private final AtomicLongArray paths = new AtomicLongArray(ExtractionPath.values().length);
+    private final AtomicLongArray failures = new AtomicLongArray(Failure.values().length);
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+    private final AtomicLong pagesDownloaded = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    void recordFetch(long millis, long bytes) {
+        fetch.record(millis);
+        bytesDownloaded.addAndGet(bytes);
+        pagesDownloaded.incrementAndGet();
+    }
+
+    void recordParse(long millis) {
+        parse.record(millis);
+    }
+
+    void recordExtract(ExtractionPath path, long millis) {
+        extract.record(millis);
+        paths.incrementAndGet(path.ordinal());
+    }
+
+    void recordFailure(Failure failure) {
+        failures.incrementAndGet(failure.ordinal());
+    }
+
+    void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    public LatencyHistogram getFetchLatency() {
+        return fetch;
+    }
+
+    public LatencyHistogram getParseLatency() {
+        return parse;
+    }
+
+    public LatencyHistogram getExtractLatency() {
+        return extract;
+    }
+
+    public long getPathCount(ExtractionPath path) {
+        return paths.get(path.ordinal());
+    }
+
+    public long getFailureCount(Failure failure) {
+        return failures.get(failure.ordinal());
+    }
+
+    public long getPagesDownloaded() {
+        return pagesDownloaded.get();
+    }
+
+    public long getBytesDownloaded() {
+        return bytesDownloaded.get();
+    }
+
+    /**
+     * Share of extracted pages served by either JSON path, in percent
+     */
+    public double getJsonPathRate() {
+        long json = getPathCount(ExtractionPath.JSON_STREAM) + getPathCount(ExtractionPath.JSON_DOM);
+        long total = json + getPathCount(ExtractionPath.HTML);
+        return total == 0 ? 0 : json * 100.0 / total;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<ExtractionPath, Long> pathCounts = new EnumMap<>(ExtractionPath.class);
+        for (ExtractionPath path : ExtractionPath.values()) {
+            pathCounts.put(path, getPathCount(path));
+        }
+        Map<Failure, Long> failureCounts = new EnumMap<>(Failure.class);
+        for (Failure failure : Failure.values()) {
+            failureCounts.put(failure, getFailureCount(failure));
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pagesDownloaded", pagesDownloaded.get());
+        stats.put("bytesDownloaded", bytesDownloaded.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("notModified", notModified.get());
+        stats.put("jsonPathRate", String.format("%.1f%%", getJsonPathRate()));
+        stats.put("paths", pathCounts);
+        stats.put("failures", failureCounts);
+        stats.put("fetch", fetch.toMap());
+        stats.put("parse", parse.toMap());
+        stats.put("extract", extract.toMap());
+        return stats;
+    }
+}
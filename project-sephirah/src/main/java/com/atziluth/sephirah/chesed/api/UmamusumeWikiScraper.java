@@ -3,19 +3,34 @@ package com.atziluth.sephirah.chesed.api;
 import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
 import com.atziluth.sephirah.chesed.model.Umamusume;
 import com.atziluth.sephirah.chesed.model.TrackProficiency;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.QueryParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// JSON parsing imports
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Scrapes GameTora database for missing character data (stats, skills, track type, etc.)
@@ -25,9 +40,91 @@ import java.util.*;
 public class UmamusumeWikiScraper {
     private static final Logger logger = LoggerFactory.getLogger(UmamusumeWikiScraper.class);
     
-    private static final String WIKI_BASE_URL = "https://gametora.com/umamusume";
-    private static final int TIMEOUT_MS = 15000;  // GameTora timeout
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    static final String WIKI_BASE_URL = "https://gametora.com/umamusume";
+    static final int TIMEOUT_MS = 15000;  // GameTora timeout
+    static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    
+    // HTML fallback: selectors compiled once, not re-parsed per page or per row
+    private static final String STATS_CLASS = "characters_infobox_stats__MHrw9";
+    private static final String CAPTION_CLASS = "characters_infobox_caption__UHck_";
+    private static final Evaluator ROW = QueryParser.parse("div.characters_infobox_row__RNXnI");
+    private static final Evaluator ROW_SPLIT = QueryParser.parse("div.characters_infobox_row_split__AgKVj");
+    private static final Evaluator STAT_ICON = QueryParser.parse("span.utils_stat_icon__J4nu0");
+    private static final Evaluator IMG = QueryParser.parse("img");
+    private static final Evaluator DIV = QueryParser.parse("div");
+    private static final Evaluator PARAGRAPH = QueryParser.parse("p");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NON_SLUG_CHARS = Pattern.compile("[^a-z0-9-]");
+    private static final String STAR = "⭐";
+    
+    // Hedged enrichment: race the ID page against the name page under one deadline
+    private static final long DEFAULT_ENRICHMENT_DEADLINE_MS = 20000;
+    private static final long DEFAULT_HEDGE_DELAY_MS = 3000;
+    private static final long MIN_HEDGE_DELAY_MS = 250;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final LatencyTracker FETCH_LATENCY = new LatencyTracker(128);
+    // Two attempts per enrichment on each scrape worker; extra attempts queue
+    private static final int HEDGE_THREADS = 2 * ScrapeEngine.DEFAULT_WORKERS;
+    private static final ExecutorService HEDGE_POOL = newHedgePool();
+    private static volatile long enrichmentDeadlineMs = DEFAULT_ENRICHMENT_DEADLINE_MS;
+    
+    /**
+     * Per-host request slots. Every attempt that goes to the network holds one for as long
+     * as its fetch runs, abandoned attempts included, so racing never exceeds the host limit.
+     */
+    interface HostPermits {
+        /**
+         * Wait for a free slot and for its start time
+         */
+        void acquire() throws InterruptedException;
+        
+        /**
+         * Take a slot only if one is free right now, without waiting for its start time
+         * @return milliseconds until the reserved start time, or -1 if no slot is free
+         */
+        long tryReserve();
+        
+        void release();
+    }
+    
+    // Scrape results persisted per resolved URL, revalidated with conditional requests
+    private static final ScrapeCache SCRAPE_CACHE = new ScrapeCache();
+    
+    // Base character ID -> known card pages, so enrichment requests the right page directly
+    private static final CardIdIndex CARD_ID_INDEX = new CardIdIndex();
+    private static final Pattern CARD_PAGE_ID = Pattern.compile(".*/characters/(\\d{6})$");
+    
+    // Path, latency and failure counters for every page scrape
+    private static final ScraperMetrics METRICS = new ScraperMetrics();
+    
+    /**
+     * Persistent scrape cache (e.g. to change how long results are served without revalidation)
+     */
+    public static ScrapeCache getScrapeCache() {
+        return SCRAPE_CACHE;
+    }
+    
+    /**
+     * True if a page would be served from the scrape cache without a request
+     */
+    static boolean isFreshlyCached(String wikiUrl) {
+        return SCRAPE_CACHE.isFresh(SCRAPE_CACHE.get(wikiUrl));
+    }
+    
+    /**
+     * Card ID resolution index learned from listing bundles and scraped pages
+     */
+    public static CardIdIndex getCardIdIndex() {
+        return CARD_ID_INDEX;
+    }
+    
+    /**
+     * Scraper instrumentation: extraction path counts, fetch/parse/extract latency, failures
+     */
+    public static ScraperMetrics getMetrics() {
+        return METRICS;
+    }
     
     /**
      * Scrape GameTora using Character ID (Preferred Method)
@@ -36,16 +133,7 @@ public class UmamusumeWikiScraper {
      * @return Umamusume domain model with wiki-enriched data
      */
     public static Umamusume scrapeCharacterStats(int characterId) {
-        // Fix for GameTora: Base IDs (4 digits) often point to a profile page without stats.
-        // We append "01" to target the default playable card (6 digits).
-        String urlId = String.valueOf(characterId);
-        if (urlId.length() == 4) {
-            urlId += "01";
-            logger.debug("Adjusted base ID {} to {} for GameTora stats lookup", characterId, urlId);
-        }
-
-        String wikiUrl = WIKI_BASE_URL + "/characters/" + urlId;
-        return scrapeFromUrl(wikiUrl, "ID: " + characterId);
+        return ScrapeEngine.shared().scrape(buildWikiUrl(characterId)).join();
     }
 
     /**
@@ -54,126 +142,389 @@ public class UmamusumeWikiScraper {
      * @return Umamusume domain model with wiki-enriched data
      */
     public static Umamusume scrapeCharacterStats(String characterName) {
-        String wikiUrl = buildWikiUrl(characterName);
-        return scrapeFromUrl(wikiUrl, "Name: " + characterName);
+        return ScrapeEngine.shared().scrape(buildWikiUrl(characterName)).join();
     }
 
     /**
-     * Internal method to perform the actual scraping logic given a URL
+     * Internal method to perform the actual scraping logic given a URL.
+     * Package-private so {@link ScrapeEngine} can run it on its worker pool.
      */
-    private static Umamusume scrapeFromUrl(String wikiUrl, String identifier) {
-        // Create base model
-        Umamusume character = new Umamusume();
-        // Identifier is just for logging/debugging context here
+    static Umamusume scrapeFromUrl(String wikiUrl, String identifier) {
+        return buildUmamusumeModel(scrapeFields(wikiUrl, identifier, System.currentTimeMillis() + TIMEOUT_MS));
+    }
+    
+    /**
+     * Scrape a character, racing the ID page against the name page.
+     * The primary URL is fetched first; if it has not produced a usable result within the
+     * hedge delay (the recent p90 fetch latency), or it fails, the alternate URL is fetched too.
+     * The first usable result wins and the whole enrichment is bounded by the enrichment deadline.
+     * @param alternateUrl second candidate page, or null to fetch only the primary
+     * @param permits slots of the pages' host; the primary waits for one, the alternate is
+     *                only hedged if one is free
+     */
+    static Umamusume scrapeHedged(String primaryUrl, String alternateUrl, String identifier,
+                                  HostPermits permits) {
+        long deadline = System.currentTimeMillis() + enrichmentDeadlineMs;
+        if (alternateUrl == null || alternateUrl.equals(primaryUrl)) {
+            try {
+                return buildUmamusumeModel(scrapeWithPermit(primaryUrl, identifier, deadline, permits));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return buildUmamusumeModel(new ScrapeResult());
+            }
+        }
+        
+        CompletionService<ScrapeResult> race = new ExecutorCompletionService<>(HEDGE_POOL);
+        List<Future<ScrapeResult>> attempts = new ArrayList<>(2);
+        attempts.add(race.submit(() -> scrapeWithPermit(primaryUrl, identifier, deadline, permits)));
+        // Whoever flips this first owns the hedge permit: the hedge when it starts, or
+        // cleanup below when the hedge was cancelled before it ever ran
+        AtomicBoolean hedgeClaimed = new AtomicBoolean(false);
+        boolean hedgePermitted = false;
+        boolean hedged = false;
+        int pending = 1;
+        ScrapeResult best = new ScrapeResult();
+        
+        try {
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || (pending == 0 && hedged)) {
+                    break;
+                }
+                long wait = hedged ? remaining : Math.min(remaining, hedgeDelayMillis());
+                Future<ScrapeResult> done = race.poll(wait, TimeUnit.MILLISECONDS);
+                
+                if (done != null) {
+                    pending--;
+                    ScrapeResult result = done.get();
+                    if (isUsable(result)) {
+                        best = result;
+                        break;
+                    }
+                    if (result.fieldCount() > best.fieldCount()) {
+                        best = result;
+                    }
+                } else if (hedged) {
+                    break; // Deadline reached
+                }
+                
+                if (!hedged) {
+                    // Primary is slow or came back empty: race the alternate page if a slot is free
+                    hedged = true;
+                    String alternateIdentifier = identifier + " (alternate)";
+                    boolean alternateCached = isFreshlyCached(alternateUrl);
+                    long startDelay = alternateCached ? 0 : permits.tryReserve();
+                    if (startDelay >= 0) {
+                        logger.info("Hedging GameTora scrape for {} with {}", identifier, alternateUrl);
+                        if (alternateCached) {
+                            attempts.add(race.submit(() -> scrapeFields(alternateUrl, alternateIdentifier, deadline)));
+                        } else {
+                            hedgePermitted = true;
+                            // The attempt waits out the host spacing itself, so this loop keeps polling
+                            attempts.add(race.submit(() -> {
+                                if (!hedgeClaimed.compareAndSet(false, true)) {
+                                    return new ScrapeResult();
+                                }
+                                try {
+                                    Thread.sleep(startDelay);
+                                    return scrapeFields(alternateUrl, alternateIdentifier, deadline);
+                                } finally {
+                                    permits.release();
+                                }
+                            }));
+                        }
+                        pending++;
+                    } else {
+                        logger.debug("No free GameTora slot to hedge {}, waiting for the primary page", identifier);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Hedged scrape failed for {}: {}", identifier, e.getMessage());
+        } finally {
+            // The loser is abandoned; its own timeout is capped by the deadline
+            for (Future<ScrapeResult> attempt : attempts) {
+                attempt.cancel(true);
+            }
+            if (hedgePermitted && hedgeClaimed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
         
+        if (!isUsable(best)) {
+            logger.warn("No usable GameTora data for {} within {}ms", identifier, enrichmentDeadlineMs);
+        }
+        return buildUmamusumeModel(best);
+    }
+    
+    /**
+     * Fetch one page under a host slot; pages fresh in the scrape cache need none.
+     * The slot is held until the fetch really ends, even if the caller stopped waiting.
+     */
+    private static ScrapeResult scrapeWithPermit(String wikiUrl, String identifier, long deadline,
+                                                 HostPermits permits) throws InterruptedException {
+        if (isFreshlyCached(wikiUrl)) {
+            return scrapeFields(wikiUrl, identifier, deadline);
+        }
+        permits.acquire();
+        try {
+            return scrapeFields(wikiUrl, identifier, deadline);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private static ExecutorService newHedgePool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            HEDGE_THREADS, HEDGE_THREADS,
+            30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "gametora-hedge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+    
+    /**
+     * Upper bound on one enrichment, hedged attempts included
+     */
+    public static void setEnrichmentDeadline(long deadlineMillis) {
+        if (deadlineMillis <= 0) {
+            throw new IllegalArgumentException("Deadline must be positive");
+        }
+        enrichmentDeadlineMs = deadlineMillis;
+    }
+    
+    /**
+     * Delay before hedging: p90 of recent fetch latencies, or a fixed default until enough samples exist
+     */
+    private static long hedgeDelayMillis() {
+        if (FETCH_LATENCY.count() < MIN_LATENCY_SAMPLES) {
+            return DEFAULT_HEDGE_DELAY_MS;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(TIMEOUT_MS, FETCH_LATENCY.percentile(0.90)));
+    }
+    
+    private static boolean isUsable(ScrapeResult result) {
+        return result.fieldCount() >= 3;
+    }
+    
+    /**
+     * Fetch and extract one page (or serve it from the scrape cache).
+     * @param deadline absolute time by which the request must finish; caps the socket timeout
+     * @return extracted fields, empty if the page failed
+     */
+    private static ScrapeResult scrapeFields(String wikiUrl, String identifier, long deadline) {
         // Container for extracted data
-        Map<String, Object> stats = new HashMap<>();
+        ScrapeResult stats = new ScrapeResult();
+        
+        // Serve recent results without touching the network
+        ScrapeCache.Entry cached = SCRAPE_CACHE.get(wikiUrl);
+        if (SCRAPE_CACHE.isFresh(cached)) {
+            SCRAPE_CACHE.recordFreshHit();
+            METRICS.recordCacheHit();
+            logger.debug("Scrape cache hit for {}", identifier);
+            return ScrapeResult.fromFields(cached.fields);
+        }
         
         try {
             logger.info("Scraping GameTora for {}: {}", identifier, wikiUrl);
             
-            // Fetch and parse HTML
-            Document doc = Jsoup.connect(wikiUrl)
+            int timeout = (int) Math.max(1, Math.min(TIMEOUT_MS, deadline - System.currentTimeMillis()));
+            long fetchStart = System.nanoTime();
+            
+            // Fetch raw bytes; the DOM is only built if the fast path fails
+            Connection connection = Jsoup.connect(wikiUrl)
                 .userAgent(USER_AGENT)
-                .timeout(TIMEOUT_MS)
+                .timeout(timeout)
                 .followRedirects(true)
-                .get();
+                .ignoreHttpErrors(true);
+            if (cached != null && cached.hasValidators()) {
+                // Conditional request: a 304 means the stored fields are still current
+                if (cached.etag != null) {
+                    connection.header("If-None-Match", cached.etag);
+                }
+                if (cached.lastModified != null) {
+                    connection.header("If-Modified-Since", cached.lastModified);
+                }
+            }
+            Connection.Response response = connection.execute();
+            
+            if (response.statusCode() == 304 && cached != null) {
+                FETCH_LATENCY.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetchStart));
+                METRICS.recordNotModified();
+                SCRAPE_CACHE.markRevalidated(wikiUrl);
+                logger.info("GameTora page unchanged for {}, using cached scrape", identifier);
+                return ScrapeResult.fromFields(cached.fields);
+            }
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), wikiUrl);
+            }
+            byte[] body = response.bodyAsBytes();
+            long fetchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetchStart);
+            FETCH_LATENCY.record(fetchMillis);
+            METRICS.recordFetch(fetchMillis, body.length);
+            
+            // FAST PATH: stream __NEXT_DATA__ straight from the bytes
+            long extractStart = System.nanoTime();
+            NextDataExtractor.ItemData itemData = extractFromNextData(body, stats);
+            if (itemData != null) {
+                METRICS.recordExtract(ScraperMetrics.ExtractionPath.JSON_STREAM, elapsedMillis(extractStart));
+                logger.info("Used streaming JSON fast path for {} - extracted {} fields", identifier, stats.fieldCount());
+                cacheScrape(wikiUrl, stats, response);
+                learnCardPage(wikiUrl, itemData);
+                return stats;
+            }
+            
+            // SLOW PATH: parse the HTML into a DOM
+            stats.clear();
+            long parseStart = System.nanoTime();
+            Document doc = Jsoup.parse(new ByteArrayInputStream(body), response.charset(), wikiUrl);
+            
+            // One traversal collects everything the extractors read
+            PageIndex page = PageIndex.build(doc);
+            METRICS.recordParse(elapsedMillis(parseStart));
             
             // Extract all available data
-            extractStats(doc, stats);          // Profile data + game stats + rarity + aptitudes
-            extractSkills(doc, stats);         // Songs and skills
-            extractBiography(doc, stats);      // Character description
-            extractRelationships(doc, stats);  // Related characters
+            extractStart = System.nanoTime();
+            ScraperMetrics.ExtractionPath path = 
+                extractStats(page, stats);      // Profile data + game stats + rarity + aptitudes
+            extractSkills(page, stats);         // Songs and skills
+            extractBiography(page, stats);      // Character description
+            extractRelationships(page, stats);  // Related characters
+            METRICS.recordExtract(path, elapsedMillis(extractStart));
             
-            // Build domain model from extracted data
             // Note: If scraping by ID, name might be null initially, it will be filled by enricher later
-            character = buildUmamusumeModel(stats);
-            
-            if (stats.size() >= 3) {
+            if (isUsable(stats)) {
                 logger.info("Successfully scraped {} fields from GameTora for {}", 
-                    stats.size(), identifier);
+                    stats.fieldCount(), identifier);
+                cacheScrape(wikiUrl, stats, response);
+                learnCardPage(wikiUrl, null);
             } else {
+                // The page loaded but none of the known structures matched
+                METRICS.recordFailure(ScraperMetrics.Failure.LAYOUT_CHANGE);
                 logger.warn("Limited data extracted from GameTora for {}", identifier);
             }
+            return stats;
             
         } catch (IOException e) {
+            METRICS.recordFailure(classifyFailure(e));
             logger.warn("Failed to scrape GameTora for {}: {}", identifier, e.getMessage());
+            int status = e instanceof HttpStatusException ? ((HttpStatusException) e).getStatusCode() : -1;
+            if (status == 404 || status == 410) {
+                // The page is gone, so its old fields are no longer this character's
+                SCRAPE_CACHE.remove(wikiUrl);
+            } else if (cached != null && (status == -1 || status >= 500)) {
+                // Stale data beats no data while GameTora is unreachable
+                logger.info("Serving stale cached scrape for {}", identifier);
+                return ScrapeResult.fromFields(cached.fields);
+            }
         } catch (Exception e) {
+            METRICS.recordFailure(ScraperMetrics.Failure.UNEXPECTED);
             logger.warn("Unexpected error scraping GameTora for {}: {}", identifier, e.getMessage());
         }
         
-        return character;
+        return new ScrapeResult();
     }
     
     /**
-     * Build Umamusume domain model from extracted GameTora data
+     * Remember which card page served a usable scrape.
+     * Identity comes from itemData when the page carried it, otherwise from a card-ID URL.
      */
-    private static Umamusume buildUmamusumeModel(Map<String, Object> stats) {
-        Umamusume character = new Umamusume();
-        // Name is handled by the caller (enrichCharacterData) merging this object
-        
-        // Build and populate stats
-        Umamusume.Stats modelStats = new Umamusume.Stats();
-        if (stats.containsKey("speed")) {
-            modelStats.setSpeed((Integer) stats.get("speed"));
-        }
-        if (stats.containsKey("stamina")) {
-            modelStats.setStamina((Integer) stats.get("stamina"));
+    private static void learnCardPage(String wikiUrl, NextDataExtractor.ItemData itemData) {
+        long cardId = itemData != null ? itemData.cardId : -1;
+        String slug = itemData != null ? itemData.urlName : null;
+        if (cardId <= 0) {
+            Matcher matcher = CARD_PAGE_ID.matcher(wikiUrl);
+            if (matcher.matches()) {
+                cardId = Long.parseLong(matcher.group(1));
+            }
         }
-        if (stats.containsKey("power")) {
-            modelStats.setPower((Integer) stats.get("power"));
+        long baseId = itemData != null && itemData.baseId > 0 ? itemData.baseId : CardIdIndex.baseIdOf(cardId);
+        if (CARD_ID_INDEX.learn(baseId, cardId, slug)) {
+            logger.debug("Learned GameTora card page {} / {} for base ID {}", cardId, slug, baseId);
         }
-        if (stats.containsKey("guts")) {
-            modelStats.setGuts((Integer) stats.get("guts"));
+    }
+    
+    private static ScraperMetrics.Failure classifyFailure(IOException e) {
+        if (e instanceof SocketTimeoutException) {
+            return ScraperMetrics.Failure.TIMEOUT;
         }
-        if (stats.containsKey("intelligence")) {
-            modelStats.setIntelligence((Integer) stats.get("intelligence"));
+        if (e instanceof HttpStatusException) {
+            return ScraperMetrics.Failure.HTTP_STATUS;
         }
-        character.setStats(modelStats);
+        return ScraperMetrics.Failure.NETWORK;
+    }
+    
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Persist extracted fields together with the response validators
+     */
+    private static void cacheScrape(String wikiUrl, ScrapeResult stats, Connection.Response response) {
+        SCRAPE_CACHE.put(wikiUrl, stats.toFields(), response.header("ETag"), response.header("Last-Modified"));
+    }
+    
+    /**
+     * Build Umamusume domain model from extracted GameTora data
+     */
+    private static Umamusume buildUmamusumeModel(ScrapeResult result) {
+        Umamusume character = new Umamusume();
+        // Name is handled by the caller (enrichCharacterData) merging this object
+        
+        // Build and populate stats (missing stats stay 0)
+        int[] stats = result.stats;
+        character.setStats(new Umamusume.Stats(
+            Math.max(0, stats[ScrapeResult.SPEED]),
+            Math.max(0, stats[ScrapeResult.STAMINA]),
+            Math.max(0, stats[ScrapeResult.POWER]),
+            Math.max(0, stats[ScrapeResult.GUTS]),
+            Math.max(0, stats[ScrapeResult.INTELLIGENCE])));
         
         // Set rarity enum
-        if (stats.containsKey("rarity")) {
-            try {
-                String rarityStr = (String) stats.get("rarity");
-                character.setRarity(Umamusume.Rarity.valueOf(rarityStr));
-            } catch (IllegalArgumentException e) {
-                character.setRarity(Umamusume.Rarity.N);
-                logger.debug("Invalid rarity value from wiki: {}", stats.get("rarity"));
-            }
-        } else {
-            character.setRarity(Umamusume.Rarity.N);
-        }
+        character.setRarity(result.rarity != null ? result.rarity : Umamusume.Rarity.N);
         
         // Set character type enum
-        if (stats.containsKey("type")) {
-            try {
-                String typeStr = (String) stats.get("type");
-                // Map wiki type names to enum
-                Umamusume.CharacterType charType = mapTypeToCharacterType(typeStr);
-                character.setType(charType);
-            } catch (Exception e) {
-                logger.debug("Failed to set character type: {}", e.getMessage());
-            }
+        if (result.type != null) {
+            // Map wiki type names to enum
+            character.setType(mapTypeToCharacterType(result.type));
         }
         
+        // Set aptitude grades
+        Umamusume.Aptitudes aptitudes = new Umamusume.Aptitudes();
+        aptitudes.setTurfGrade(result.gradeLetter(ScrapeResult.TURF));
+        aptitudes.setDirtGrade(result.gradeLetter(ScrapeResult.DIRT));
+        aptitudes.setShortDistance(result.gradeLetter(ScrapeResult.SHORT));
+        aptitudes.setMileDistance(result.gradeLetter(ScrapeResult.MILE));
+        aptitudes.setMediumDistance(result.gradeLetter(ScrapeResult.MEDIUM));
+        aptitudes.setLongDistance(result.gradeLetter(ScrapeResult.LONG));
+        aptitudes.setFrontStrategy(result.gradeLetter(ScrapeResult.FRONT));
+        aptitudes.setPaceStrategy(result.gradeLetter(ScrapeResult.PACE));
+        aptitudes.setLateStrategy(result.gradeLetter(ScrapeResult.LATE));
+        aptitudes.setEndStrategy(result.gradeLetter(ScrapeResult.END));
+        character.setAptitudes(aptitudes);
+        
         // Set track proficiency if available
-        if (stats.containsKey("trackType")) {
-            String trackType = (String) stats.get("trackType");
-            try {
-                TrackProficiency.TrackType profType = "Dirt".equalsIgnoreCase(trackType) 
-                    ? TrackProficiency.TrackType.DIRT 
-                    : TrackProficiency.TrackType.TURF;
-                TrackProficiency proficiency = new TrackProficiency(
-                    profType,
-                    TrackProficiency.DistanceType.MILE,  // Default
-                    TrackProficiency.Grade.A
-                );
-                character.addProficiency(proficiency);
-            } catch (Exception e) {
-                logger.debug("Failed to set track proficiency: {}", e.getMessage());
-            }
+        if (result.trackType != null) {
+            character.addProficiency(new TrackProficiency(
+                result.trackType,
+                TrackProficiency.DistanceType.MILE,  // Default
+                TrackProficiency.Grade.A
+            ));
         }
         
+        // Wiki text (only the HTML fallback finds it; the __NEXT_DATA__ path leaves it empty)
+        character.setSkills(result.skills);
+        character.setBiography(result.biography);
+        character.setRelationships(result.relationships);
+        
         return character;
     }
     
@@ -200,198 +551,239 @@ public class UmamusumeWikiScraper {
         return null;
     }
     
+    private static String buildWikiUrl(int characterId) {
+        // A card page learned from listings or earlier scrapes needs no guessing
+        long knownCard = CARD_ID_INDEX.defaultCardId(characterId);
+        if (knownCard > 0) {
+            return characterPageUrl(String.valueOf(knownCard));
+        }
+        
+        // Fix for GameTora: Base IDs (4 digits) often point to a profile page without stats.
+        // We append "01" to target the default playable card (6 digits).
+        String urlId = String.valueOf(characterId);
+        if (urlId.length() == 4) {
+            urlId += "01";
+            logger.debug("Adjusted base ID {} to {} for GameTora stats lookup", characterId, urlId);
+        }
+        return characterPageUrl(urlId);
+    }
+    
+    /**
+     * GameTora character page for a card ID or URL slug
+     */
+    static String characterPageUrl(String pathSegment) {
+        return WIKI_BASE_URL + "/characters/" + pathSegment;
+    }
+    
     private static String buildWikiUrl(String characterName) {
         // Convert "Tosen Jordan" to "tosen-jordan" for GameTora
-        String encodedName = characterName.trim()
-            .toLowerCase()
-            .replaceAll("\\s+", "-")
-            .replaceAll("[^a-z0-9-]", "");
-        return WIKI_BASE_URL + "/characters/" + encodedName;
+        String encodedName = WHITESPACE.matcher(characterName.trim().toLowerCase()).replaceAll("-");
+        encodedName = NON_SLUG_CHARS.matcher(encodedName).replaceAll("");
+        return characterPageUrl(encodedName);
+    }
+    
+    /**
+     * Extract character data by streaming __NEXT_DATA__ out of the raw response (FAST PATH).
+     * No DOM is built; only props.pageProps.itemData is parsed.
+     * @return the parsed itemData if enough fields were found to skip HTML parsing, else null
+     */
+    private static NextDataExtractor.ItemData extractFromNextData(byte[] html, ScrapeResult stats) {
+        NextDataExtractor.ItemData itemData;
+        try {
+            itemData = NextDataExtractor.extract(html);
+            if (itemData == null) {
+                logger.debug("No __NEXT_DATA__ itemData in response, falling back to HTML parsing");
+                return null;
+            }
+            applyItemData(itemData, stats);
+        } catch (IOException e) {
+            logger.debug("Failed to stream __NEXT_DATA__: {}", e.getMessage());
+            return null;
+        }
+        return stats.fieldCount() > 10 ? itemData : null;
     }
     
     /**
-     * Extract all character data from __NEXT_DATA__ JSON (FAST PATH)
-     * This is 10-100x faster than HTML parsing and gets complete data
+     * Extract all character data from the __NEXT_DATA__ script of a parsed Document
+     * Used by the HTML fallback, in case the byte scan missed a reformatted script tag
      */
-    private static void extractFromJson(Document doc, Map<String, Object> stats) {
+    private static void extractFromJson(Element scriptTag, ScrapeResult stats) {
         try {
-            // Find the script tag containing JSON data
-            Element scriptTag = doc.selectFirst("script#__NEXT_DATA__");
             if (scriptTag == null) {
                 logger.debug("No __NEXT_DATA__ script found, falling back to HTML parsing");
                 return;
             }
             
-            // Parse JSON
-            String jsonText = scriptTag.html();
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(jsonText);
-            
             // Navigate to character data: props.pageProps.itemData
-            JsonNode itemData = root.path("props").path("pageProps").path("itemData");
-            
-            if (itemData.isMissingNode()) {
+            NextDataExtractor.ItemData itemData = NextDataExtractor.extract(scriptTag.data());
+            if (itemData == null) {
                 logger.debug("itemData not found in JSON structure");
                 return;
             }
+            applyItemData(itemData, stats);
             
-            // Extract rarity (1-5 stars)
-            if (itemData.has("rarity")) {
-                int rarity = itemData.get("rarity").asInt();
-                stats.put("rarity", mapStarCountToRarity(rarity));
-                logger.debug("Extracted rarity from JSON: {} stars -> {}", rarity, stats.get("rarity"));
-            }
-            
-            // Extract base stats: [speed, stamina, power, guts, intelligence]
-            if (itemData.has("base_stats")) {
-                JsonNode baseStats = itemData.get("base_stats");
-                if (baseStats.isArray() && baseStats.size() >= 5) {
-                    stats.put("speed", baseStats.get(0).asInt());
-                    stats.put("stamina", baseStats.get(1).asInt());
-                    stats.put("power", baseStats.get(2).asInt());
-                    stats.put("guts", baseStats.get(3).asInt());
-                    stats.put("intelligence", baseStats.get(4).asInt());
-                    
-                    logger.debug("Extracted stats from JSON: SPD={}, STA={}, POW={}, GUT={}, INT={}", 
-                        baseStats.get(0).asInt(), baseStats.get(1).asInt(), 
-                        baseStats.get(2).asInt(), baseStats.get(3).asInt(), 
-                        baseStats.get(4).asInt());
-                }
-            }
+        } catch (Exception e) {
+            logger.debug("Failed to extract JSON data: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Extraction record for one itemData record, in the same shape a page scrape produces
+     */
+    static ScrapeResult toScrapeResult(NextDataExtractor.ItemData itemData) {
+        ScrapeResult stats = new ScrapeResult();
+        applyItemData(itemData, stats);
+        return stats;
+    }
+    
+    /**
+     * Copy streamed itemData fields into the extraction record
+     */
+    private static void applyItemData(NextDataExtractor.ItemData itemData, ScrapeResult stats) {
+        // Extract rarity (1-5 stars)
+        if (itemData.rarity >= 0) {
+            stats.rarity = mapStarCountToRarity(itemData.rarity);
+            logger.debug("Extracted rarity from JSON: {} stars -> {}", itemData.rarity, stats.rarity);
+        }
+        
+        // Extract base stats: [speed, stamina, power, guts, intelligence]
+        int[] baseStats = itemData.baseStats;
+        if (baseStats != null && baseStats.length >= ScrapeResult.STAT_SLOTS) {
+            System.arraycopy(baseStats, 0, stats.stats, 0, ScrapeResult.STAT_SLOTS);
             
-            // Extract aptitudes: ["turf", "dirt", "short", "mile", "medium", "long", "front", "pace", "late", "end"]
-            if (itemData.has("aptitude")) {
-                JsonNode aptitude = itemData.get("aptitude");
-                if (aptitude.isArray() && aptitude.size() >= 10) {
-                    // Surface aptitudes (index 0-1)
-                    String turfGrade = aptitude.get(0).asText();
-                    String dirtGrade = aptitude.get(1).asText();
-                    stats.put("surfaceTurf", turfGrade);
-                    stats.put("surfaceDirt", dirtGrade);
-                    
-                    // Determine primary track type (higher grade wins)
-                    if (compareGrades(dirtGrade, turfGrade) > 0) {
-                        stats.put("trackType", "Dirt");
-                    } else {
-                        stats.put("trackType", "Turf");
-                    }
-                    
-                    // Distance aptitudes (index 2-5)
-                    stats.put("distanceShort", aptitude.get(2).asText());
-                    stats.put("distanceMile", aptitude.get(3).asText());
-                    stats.put("distanceMedium", aptitude.get(4).asText());
-                    stats.put("distanceLong", aptitude.get(5).asText());
-                    
-                    // Strategy aptitudes (index 6-9)
-                    stats.put("strategyFront", aptitude.get(6).asText());
-                    stats.put("strategyPace", aptitude.get(7).asText());
-                    stats.put("strategyLate", aptitude.get(8).asText());
-                    stats.put("strategyEnd", aptitude.get(9).asText());
-                    
-                    logger.debug("Extracted aptitudes from JSON: Turf={}, Dirt={}, Short={}, Mile={}", 
-                        turfGrade, dirtGrade, aptitude.get(2).asText(), aptitude.get(3).asText());
-                }
+            logger.debug("Extracted stats from JSON: SPD={}, STA={}, POW={}, GUT={}, INT={}", 
+                baseStats[0], baseStats[1], baseStats[2], baseStats[3], baseStats[4]);
+        }
+        
+        // Extract aptitudes: ["turf", "dirt", "short", "mile", "medium", "long", "front", "pace", "late", "end"]
+        String[] aptitude = itemData.aptitude;
+        if (aptitude != null && aptitude.length >= ScrapeResult.APTITUDE_SLOTS) {
+            // Slots share the itemData order: surface 0-1, distance 2-5, strategy 6-9
+            for (int slot = 0; slot < ScrapeResult.APTITUDE_SLOTS; slot++) {
+                stats.setGrade(slot, aptitude[slot]);
             }
             
-            logger.info("Successfully extracted {} fields from JSON (fast path)", stats.size());
+            // Determine primary track type (higher grade wins; packed grades compare directly)
+            stats.trackType = stats.grades[ScrapeResult.DIRT] > stats.grades[ScrapeResult.TURF]
+                ? TrackProficiency.TrackType.DIRT
+                : TrackProficiency.TrackType.TURF;
             
-        } catch (Exception e) {
-            logger.debug("Failed to extract JSON data: {}", e.getMessage());
+            logger.debug("Extracted aptitudes from JSON: Turf={}, Dirt={}, Short={}, Mile={}", 
+                aptitude[0], aptitude[1], aptitude[2], aptitude[3]);
         }
+        
+        logger.debug("Extracted {} fields from JSON", stats.fieldCount());
     }
     
     /**
-     * Compare aptitude grades (S > A > B > C > D > E > F > G)
+     * Elements of one page that the HTML extractors read, collected in a single traversal
+     * instead of one full-document select per extractor.
      */
-    private static int compareGrades(String grade1, String grade2) {
-        Map<String, Integer> gradeValues = new HashMap<>();
-        gradeValues.put("S", 8);
-        gradeValues.put("A", 7);
-        gradeValues.put("B", 6);
-        gradeValues.put("C", 5);
-        gradeValues.put("D", 4);
-        gradeValues.put("E", 3);
-        gradeValues.put("F", 2);
-        gradeValues.put("G", 1);
-        
-        int value1 = gradeValues.getOrDefault(grade1, 0);
-        int value2 = gradeValues.getOrDefault(grade2, 0);
+    private static final class PageIndex {
+        final List<Element> statBlocks = new ArrayList<>();
+        final List<Element> captions = new ArrayList<>();
+        final List<Element> containers = new ArrayList<>();   // div / article / section, document order
+        final Set<Element> paragraphAncestors = Collections.newSetFromMap(new IdentityHashMap<>());
+        Element nextDataScript;
         
-        return Integer.compare(value1, value2);
+        static PageIndex build(Document doc) {
+            PageIndex page = new PageIndex();
+            NodeTraversor.traverse((node, depth) -> {
+                if (!(node instanceof Element)) {
+                    return;
+                }
+                Element element = (Element) node;
+                String tag = element.normalName();
+                switch (tag) {
+                    case "div":
+                        page.containers.add(element);
+                        if (element.hasClass(STATS_CLASS)) {
+                            page.statBlocks.add(element);
+                        } else if (element.hasClass(CAPTION_CLASS)) {
+                            page.captions.add(element);
+                        }
+                        break;
+                    case "article":
+                    case "section":
+                        page.containers.add(element);
+                        break;
+                    case "p":
+                        // Only ancestors of a <p> can hold a biography paragraph
+                        for (Element parent = element.parent(); parent != null; parent = parent.parent()) {
+                            if (!page.paragraphAncestors.add(parent)) {
+                                break;
+                            }
+                        }
+                        break;
+                    case "script":
+                        if (page.nextDataScript == null && "__NEXT_DATA__".equals(element.id())) {
+                            page.nextDataScript = element;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }, doc);
+            return page;
+        }
     }
     
     /**
      * Extract stat values from GameTora infobox
      * FIRST tries JSON extraction (fast), then falls back to HTML parsing
+     * @return the path that produced the fields
      */
-    private static void extractStats(Document doc, Map<String, Object> stats) {
+    private static ScraperMetrics.ExtractionPath extractStats(PageIndex page, ScrapeResult stats) {
         // ============================================
         // STEP 1: TRY JSON EXTRACTION FIRST (FAST)
         // ============================================
-        extractFromJson(doc, stats);
+        extractFromJson(page.nextDataScript, stats);
         
         // If JSON extraction was successful (got stats + aptitudes), we're done
-        if (stats.size() > 10) {
-            logger.info("Used JSON fast path - extracted {} fields", stats.size());
-            return;
+        if (stats.fieldCount() > 10) {
+            logger.info("Used JSON fast path - extracted {} fields", stats.fieldCount());
+            return ScraperMetrics.ExtractionPath.JSON_DOM;
         }
         
         // ============================================
         // STEP 2: FALLBACK TO HTML PARSING
         // ============================================
-        logger.debug("JSON extraction incomplete ({} fields), using HTML fallback", stats.size());
+        logger.debug("JSON extraction incomplete ({} fields), using HTML fallback", stats.fieldCount());
         
         try {
             // GameTora stores stats in divs with specific class names
             // Stats section: <div class="characters_infobox_stats__MHrw9">
-            Elements statDivs = doc.select("div.characters_infobox_stats__MHrw9");
-            
-            for (Element statDiv : statDivs) {
+            for (Element statDiv : page.statBlocks) {
                 // Each stat has icon + value in a row
-                Elements rows = statDiv.select("div.characters_infobox_row__RNXnI");
-                
-                for (Element row : rows) {
+                for (Element row : statDiv.select(ROW)) {
                     String rowText = row.text();
                     
                     // Check for rarity (shown as stars: ⭐⭐⭐)
-                    if (rowText.contains("⭐")) {
-                        int starCount = rowText.split("⭐", -1).length - 1;
-                        String rarity = mapStarCountToRarity(starCount);
-                        stats.put("rarity", rarity);
-                        logger.debug("Extracted rarity: {} stars -> {}", starCount, rarity);
+                    int starCount = countOccurrences(rowText, STAR);
+                    if (starCount > 0) {
+                        stats.rarity = mapStarCountToRarity(starCount);
+                        logger.debug("Extracted rarity: {} stars -> {}", starCount, stats.rarity);
                         continue;
                     }
                     
                     // Parse stat icon and value
-                    Elements iconSpans = row.select("span.utils_stat_icon__J4nu0");
-                    if (!iconSpans.isEmpty()) {
-                        Element iconSpan = iconSpans.get(0);
-                        String imgAlt = iconSpan.select("img").attr("alt");
+                    Element iconSpan = row.selectFirst(STAT_ICON);
+                    if (iconSpan != null) {
+                        Element img = iconSpan.selectFirst(IMG);
+                        String imgAlt = img != null ? img.attr("alt").toLowerCase() : "";
                         
                         // Extract numeric value after icon
-                        Elements divs = row.select("div");
+                        Elements divs = row.select(DIV);
                         for (int i = 1; i < divs.size(); i++) {
                             String text = divs.get(i).text().trim();
-                            if (text.matches("\\d+")) {
+                            if (DIGITS.matcher(text).matches()) {
                                 int value = Integer.parseInt(text);
                                 
-                                // Map icon alt text to stat name
-                                if (imgAlt.contains("Speed") || imgAlt.contains("speed")) {
-                                    stats.put("speed", value);
-                                    logger.debug("Extracted Speed: {}", value);
-                                } else if (imgAlt.contains("Stamina") || imgAlt.contains("stamina")) {
-                                    stats.put("stamina", value);
-                                    logger.debug("Extracted Stamina: {}", value);
-                                } else if (imgAlt.contains("Power") || imgAlt.contains("power")) {
-                                    stats.put("power", value);
-                                    logger.debug("Extracted Power: {}", value);
-                                } else if (imgAlt.contains("Guts") || imgAlt.contains("guts")) {
-                                    stats.put("guts", value);
-                                    logger.debug("Extracted Guts: {}", value);
-                                } else if (imgAlt.contains("Intelligence") || imgAlt.contains("Wit") || 
-                                             imgAlt.contains("intelligence") || imgAlt.contains("wit")) {
-                                    stats.put("intelligence", value);
-                                    logger.debug("Extracted Intelligence: {}", value);
+                                // Map icon alt text to stat slot
+                                int slot = statSlotForIcon(imgAlt);
+                                if (slot != ScrapeResult.UNSET) {
+                                    stats.stats[slot] = value;
+                                    logger.debug("Extracted stat {}: {}", slot, value);
                                 }
                                 break;
                             }
@@ -401,98 +793,96 @@ public class UmamusumeWikiScraper {
             }
             
             // Extract aptitude data for track types and distances
-            extractAptitudes(doc, stats);
+            extractAptitudes(page, stats);
             
             logger.debug("Successfully extracted stats and aptitudes from GameTora");
         } catch (Exception e) {
             logger.debug("Failed to extract stats from GameTora: {}", e.getMessage());
         }
+        return ScraperMetrics.ExtractionPath.HTML;
+    }
+    
+    /**
+     * Map a lower-cased stat icon alt text to its stat slot
+     */
+    private static int statSlotForIcon(String imgAlt) {
+        if (imgAlt.contains("speed")) {
+            return ScrapeResult.SPEED;
+        } else if (imgAlt.contains("stamina")) {
+            return ScrapeResult.STAMINA;
+        } else if (imgAlt.contains("power")) {
+            return ScrapeResult.POWER;
+        } else if (imgAlt.contains("guts")) {
+            return ScrapeResult.GUTS;
+        } else if (imgAlt.contains("intelligence") || imgAlt.contains("wit")) {
+            return ScrapeResult.INTELLIGENCE;
+        }
+        return ScrapeResult.UNSET;
     }
     
     /**
      * Extract aptitude grades from GameTora infobox
      * Aptitudes show Surface (Turf/Dirt), Distance (Short/Mile/Medium/Long), Strategy (Front/Pace/Late/End)
      */
-    private static void extractAptitudes(Document doc, Map<String, Object> stats) {
+    private static void extractAptitudes(PageIndex page, ScrapeResult stats) {
         try {
-            Elements statDivs = doc.select("div.characters_infobox_stats__MHrw9");
-            
-            for (Element statDiv : statDivs) {
+            for (Element statDiv : page.statBlocks) {
                 String divText = statDiv.text();
+                boolean surface = divText.contains("Surface") || divText.contains("surface");
+                boolean distance = divText.contains("Distance") || divText.contains("distance");
+                boolean strategy = divText.contains("Strategy") || divText.contains("strategy");
+                if (!surface && !distance && !strategy) {
+                    continue;
+                }
                 
-                // Look for Surface aptitudes (Turf/Dirt)
-                if (divText.contains("Surface") || divText.contains("surface")) {
-                    Elements rows = statDiv.select("div.characters_infobox_row__RNXnI");
-                    for (Element row : rows) {
-                        Elements splits = row.select("div.characters_infobox_row_split__AgKVj");
-                        for (Element split : splits) {
-                            Elements divs = split.select("div");
-                            if (divs.size() >= 2) {
-                                String trackName = divs.get(0).text().trim();
-                                String grade = divs.get(1).text().trim();
-                                
-                                if (trackName.equalsIgnoreCase("Turf")) {
-                                    stats.put("surfaceTurf", grade);
-                                    stats.put("trackType", "Turf");
-                                    logger.debug("Extracted Turf aptitude: {}", grade);
-                                } else if (trackName.equalsIgnoreCase("Dirt")) {
-                                    stats.put("surfaceDirt", grade);
-                                    stats.put("trackType", "Dirt");
-                                    logger.debug("Extracted Dirt aptitude: {}", grade);
-                                }
+                for (Element row : statDiv.select(ROW)) {
+                    for (Element split : row.select(ROW_SPLIT)) {
+                        Elements divs = split.select(DIV);
+                        if (divs.size() < 2) {
+                            continue;
+                        }
+                        String label = divs.get(0).text().trim();
+                        String grade = divs.get(1).text().trim();
+                        
+                        // Surface aptitudes (Turf/Dirt)
+                        if (surface) {
+                            if (label.equalsIgnoreCase("Turf")) {
+                                stats.setGrade(ScrapeResult.TURF, grade);
+                                stats.trackType = TrackProficiency.TrackType.TURF;
+                                logger.debug("Extracted Turf aptitude: {}", grade);
+                            } else if (label.equalsIgnoreCase("Dirt")) {
+                                stats.setGrade(ScrapeResult.DIRT, grade);
+                                stats.trackType = TrackProficiency.TrackType.DIRT;
+                                logger.debug("Extracted Dirt aptitude: {}", grade);
                             }
                         }
-                    }
-                }
-                
-                // Look for Distance aptitudes
-                if (divText.contains("Distance") || divText.contains("distance")) {
-                    Elements rows = statDiv.select("div.characters_infobox_row__RNXnI");
-                    for (Element row : rows) {
-                        Elements splits = row.select("div.characters_infobox_row_split__AgKVj");
-                        for (Element split : splits) {
-                            Elements divs = split.select("div");
-                            if (divs.size() >= 2) {
-                                String distName = divs.get(0).text().trim();
-                                String grade = divs.get(1).text().trim();
-                                
-                                if (distName.contains("Short")) {
-                                    stats.put("distanceShort", grade);
-                                } else if (distName.contains("Mile")) {
-                                    stats.put("distanceMile", grade);
-                                } else if (distName.contains("Medium")) {
-                                    stats.put("distanceMedium", grade);
-                                } else if (distName.contains("Long")) {
-                                    stats.put("distanceLong", grade);
-                                }
-                                logger.debug("Extracted Distance {} aptitude: {}", distName, grade);
+                        
+                        // Distance aptitudes
+                        if (distance) {
+                            if (label.contains("Short")) {
+                                stats.setGrade(ScrapeResult.SHORT, grade);
+                            } else if (label.contains("Mile")) {
+                                stats.setGrade(ScrapeResult.MILE, grade);
+                            } else if (label.contains("Medium")) {
+                                stats.setGrade(ScrapeResult.MEDIUM, grade);
+                            } else if (label.contains("Long")) {
+                                stats.setGrade(ScrapeResult.LONG, grade);
                             }
+                            logger.debug("Extracted Distance {} aptitude: {}", label, grade);
                         }
-                    }
-                }
-                
-                // Look for Strategy aptitudes
-                if (divText.contains("Strategy") || divText.contains("strategy")) {
-                    Elements rows = statDiv.select("div.characters_infobox_row__RNXnI");
-                    for (Element row : rows) {
-                        Elements splits = row.select("div.characters_infobox_row_split__AgKVj");
-                        for (Element split : splits) {
-                            Elements divs = split.select("div");
-                            if (divs.size() >= 2) {
-                                String stratName = divs.get(0).text().trim();
-                                String grade = divs.get(1).text().trim();
-                                
-                                if (stratName.contains("Front")) {
-                                    stats.put("strategyFront", grade);
-                                } else if (stratName.contains("Pace")) {
-                                    stats.put("strategyPace", grade);
-                                } else if (stratName.contains("Late")) {
-                                    stats.put("strategyLate", grade);
-                                } else if (stratName.contains("End")) {
-                                    stats.put("strategyEnd", grade);
-                                }
-                                logger.debug("Extracted Strategy {} aptitude: {}", stratName, grade);
+                        
+                        // Strategy aptitudes
+                        if (strategy) {
+                            if (label.contains("Front")) {
+                                stats.setGrade(ScrapeResult.FRONT, grade);
+                            } else if (label.contains("Pace")) {
+                                stats.setGrade(ScrapeResult.PACE, grade);
+                            } else if (label.contains("Late")) {
+                                stats.setGrade(ScrapeResult.LATE, grade);
+                            } else if (label.contains("End")) {
+                                stats.setGrade(ScrapeResult.END, grade);
                             }
+                            logger.debug("Extracted Strategy {} aptitude: {}", label, grade);
                         }
                     }
                 }
@@ -505,29 +895,36 @@ public class UmamusumeWikiScraper {
     /**
      * Map star count to Rarity enum value
      */
-    private static String mapStarCountToRarity(int starCount) {
+    private static Umamusume.Rarity mapStarCountToRarity(int starCount) {
         switch (starCount) {
-            case 1: return "N";
-            case 2: return "R";
-            case 3: return "SR";
-            case 4: return "SSR";
-            case 5: return "UR";
-            default: return "N";
+            case 1: return Umamusume.Rarity.N;
+            case 2: return Umamusume.Rarity.R;
+            case 3: return Umamusume.Rarity.SR;
+            case 4: return Umamusume.Rarity.SSR;
+            case 5: return Umamusume.Rarity.UR;
+            default: return Umamusume.Rarity.N;
+        }
+    }
+    
+    private static int countOccurrences(String text, String token) {
+        int count = 0;
+        for (int at = text.indexOf(token); at >= 0; at = text.indexOf(token, at + token.length())) {
+            count++;
         }
+        return count;
     }
     
     /**
      * Extract skills from GameTora
      * GameTora has well-organized skill sections with headers like "Unique skills", "Innate skills", "Awakening skills", etc.
      */
-    private static void extractSkills(Document doc, Map<String, Object> stats) {
+    private static void extractSkills(PageIndex page, ScrapeResult stats) {
         try {
-            List<String> skills = new ArrayList<>();
+            // Pre-sized; LinkedHashSet keeps page order and makes the duplicate check O(1)
+            Set<String> skills = new LinkedHashSet<>();
             
             // GameTora uses divs with characters_infobox_caption__UHck_ for skill section headers
-            Elements skillHeaders = doc.select("div.characters_infobox_caption__UHck_");
-            
-            for (Element header : skillHeaders) {
+            for (Element header : page.captions) {
                 String headerText = header.text();
                 
                 // Look for skill-related sections: "Unique skills", "Innate skills", "Awakening skills", "Event skills"
@@ -537,20 +934,16 @@ public class UmamusumeWikiScraper {
                     // Get the parent container and find following rows for skill content
                     Element parent = header.parent();
                     if (parent != null) {
-                        Elements rows = parent.select("div.characters_infobox_row__RNXnI");
-                        
                         // Extract skill items from this section
-                        for (Element row : rows) {
+                        for (Element row : parent.select(ROW)) {
                             String skillText = row.text().trim();
                             
                             // Filter valid skill names (not headers, reasonable length, not empty)
-                            if (!skillText.isEmpty() && 
+                            if (skillText.length() > 2 && 
+                                skillText.length() < 150 &&
                                 !skillText.contains("Skill") && 
                                 !skillText.contains("skill") &&
-                                skillText.length() > 2 && 
-                                skillText.length() < 150 &&
-                                !skills.contains(skillText)) {
-                                skills.add(skillText);
+                                skills.add(skillText)) {
                                 logger.debug("Extracted skill: {}", skillText);
                             }
                         }
@@ -559,7 +952,7 @@ public class UmamusumeWikiScraper {
             }
             
             if (!skills.isEmpty()) {
-                stats.put("skills", skills);
+                stats.skills.addAll(skills);
                 logger.debug("Extracted {} skills from GameTora", skills.size());
             }
         } catch (Exception e) {
@@ -571,14 +964,14 @@ public class UmamusumeWikiScraper {
      * Extract biography/description from GameTora page
      * GameTora includes character description/profile text in dedicated sections
      */
-    private static void extractBiography(Document doc, Map<String, Object> stats) {
+    private static void extractBiography(PageIndex page, ScrapeResult stats) {
         try {
             // Look for character description - GameTora places it near the character name or in profile section
-            Elements containers = doc.select("div, article, section");
-            
-            StringBuilder biography = new StringBuilder();
-            
-            for (Element container : containers) {
+            for (Element container : page.containers) {
+                // Containers without a paragraph can never match; skip them before computing text
+                if (!page.paragraphAncestors.contains(container)) {
+                    continue;
+                }
                 String containerText = container.text();
                 
                 // Look for profile/description sections
@@ -591,22 +984,18 @@ public class UmamusumeWikiScraper {
                         !containerText.contains("Strategy")) {
                         
                         // Extract first paragraph-like text
-                        Elements paragraphs = container.select("p");
-                        if (!paragraphs.isEmpty()) {
-                            String text = paragraphs.get(0).text().trim();
-                            if (!text.isEmpty() && text.length() > 50) {
-                                biography.append(text);
-                                break;
+                        Element paragraph = container.selectFirst(PARAGRAPH);
+                        if (paragraph != null) {
+                            String text = paragraph.text().trim();
+                            if (text.length() > 50) {
+                                stats.biography = text;
+                                logger.debug("Extracted biography for character");
+                                return;
                             }
                         }
                     }
                 }
             }
-            
-            if (biography.length() > 0) {
-                stats.put("biography", biography.toString());
-                logger.debug("Extracted biography for character");
-            }
         } catch (Exception e) {
             logger.debug("Failed to extract biography from GameTora: {}", e.getMessage());
         }
@@ -616,15 +1005,13 @@ public class UmamusumeWikiScraper {
      * Extract relationships/appearances from GameTora page
      * GameTora may have dedicated relationship or story sections
      */
-    private static void extractRelationships(Document doc, Map<String, Object> stats) {
+    private static void extractRelationships(PageIndex page, ScrapeResult stats) {
         try {
-            List<String> relationships = new ArrayList<>();
+            Set<String> relationships = new LinkedHashSet<>();
             
             // Look for relationship/story sections using GameTora structure
             // These may appear as caption sections like skills
-            Elements captions = doc.select("div.characters_infobox_caption__UHck_");
-            
-            for (Element caption : captions) {
+            for (Element caption : page.captions) {
                 String captionText = caption.text();
                 
                 if (captionText.contains("Relationship") || captionText.contains("Story") || 
@@ -634,14 +1021,11 @@ public class UmamusumeWikiScraper {
                     // Extract text from following rows
                     Element parent = caption.parent();
                     if (parent != null) {
-                        Elements rows = parent.select("div.characters_infobox_row__RNXnI");
-                        for (Element row : rows) {
+                        for (Element row : parent.select(ROW)) {
                             String relText = row.text().trim();
-                            if (!relText.isEmpty() && 
-                                relText.length() > 5 && 
+                            if (relText.length() > 5 && 
                                 relText.length() < 200 &&
-                                !relationships.contains(relText)) {
-                                relationships.add(relText);
+                                relationships.add(relText)) {
                                 logger.debug("Extracted relationship: {}", relText);
                             }
                         }
@@ -650,7 +1034,7 @@ public class UmamusumeWikiScraper {
             }
             
             if (!relationships.isEmpty()) {
-                stats.put("relationships", relationships);
+                stats.relationships.addAll(relationships);
                 logger.debug("Extracted {} relationships from GameTora", relationships.size());
             }
         } catch (Exception e) {
@@ -668,24 +1052,60 @@ public class UmamusumeWikiScraper {
         if (apiCharacter == null) {
             return new Umamusume();
         }
-        
+        // Runs on the shared engine so it obeys the same per-host limits as bulk enrichment
+        return ScrapeEngine.shared().enrich(apiCharacter).join();
+    }
+    
+    /**
+     * Resolve the GameTora page for an API character.
+     * Prefers the ID (GameTora uses 6-digit IDs for cards (105201) vs 4-digit base IDs (1052)),
+     * falls back to the English name.
+     * @return page URL, or null if the character has neither ID nor name
+     */
+    static String resolveWikiUrl(UmapyoiCharacter apiCharacter) {
+        if (apiCharacter.getGameId() > 0) {
+            return buildWikiUrl(apiCharacter.getGameId());
+        }
+        String characterName = apiCharacter.getNameEnglish();
+        if (characterName == null || characterName.isEmpty()) {
+            return null;
+        }
+        return buildWikiUrl(characterName);
+    }
+    
+    /**
+     * Second candidate page used for hedging: the name slug when the primary page is ID-based
+     * @return alternate URL, or null if there is none
+     */
+    static String resolveAlternateWikiUrl(UmapyoiCharacter apiCharacter) {
+        if (apiCharacter.getGameId() <= 0) {
+            return null;
+        }
+        String knownSlug = CARD_ID_INDEX.slug(apiCharacter.getGameId());
+        if (knownSlug != null) {
+            return characterPageUrl(knownSlug);
+        }
+        String characterName = apiCharacter.getNameEnglish();
+        if (characterName == null || characterName.isEmpty()) {
+            return null;
+        }
+        return buildWikiUrl(characterName);
+    }
+    
+    /**
+     * Short identifier for log messages ("ID: 1052" or "Name: Tosen Jordan")
+     */
+    static String describe(UmapyoiCharacter apiCharacter) {
+        return apiCharacter.getGameId() > 0
+            ? "ID: " + apiCharacter.getGameId()
+            : "Name: " + apiCharacter.getNameEnglish();
+    }
+    
+    /**
+     * Merge a scraped wiki model with the API character's profile data
+     */
+    static Umamusume mergeWithApiData(UmapyoiCharacter apiCharacter, Umamusume wikiEnrichedModel) {
         try {
-            Umamusume wikiEnrichedModel;
-            
-            // Step 1: Try to scrape using ID first (Better for GameTora specific pages)
-            // GameTora uses 6-digit IDs for cards (105201) vs 4-digit base IDs (1052)
-            if (apiCharacter.getGameId() > 0) {
-                wikiEnrichedModel = scrapeCharacterStats(apiCharacter.getGameId());
-            } else {
-                // Fallback to name-based scraping if ID is missing
-                String characterName = apiCharacter.getNameEnglish();
-                if (characterName == null || characterName.isEmpty()) {
-                    return new Umamusume();
-                }
-                wikiEnrichedModel = scrapeCharacterStats(characterName);
-            }
-            
-            // Step 2: Enrich with API data (profile, physical attributes, lore, visuals)
             Umamusume fullyEnrichedModel = apiCharacter.enrichWithApiData(wikiEnrichedModel);
             
             logger.info("Fully enriched {} with GameTora wiki and Umapyoi API data", apiCharacter.getNameEnglish());
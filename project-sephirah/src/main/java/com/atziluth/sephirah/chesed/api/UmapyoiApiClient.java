@@ -19,6 +19,8 @@ import java.util.ArrayList;
 public class UmapyoiApiClient {
     private static final Logger logger = LoggerFactory.getLogger(UmapyoiApiClient.class);
     
+    private static final String CHARACTER_NAMESPACE = "character";
+    
     private final ApiConfig config;
     private final LocalCache cache;
     
@@ -75,10 +77,13 @@ public class UmapyoiApiClient {
      * @throws IOException if API request fails
      */
     public UmapyoiCharacter getCharacterById(int characterId) throws IOException {
-        String cacheKey = "character_" + characterId;
+        UmapyoiCharacter cached = cache.getById(CHARACTER_NAMESPACE, characterId, UmapyoiCharacter.class);
+        if (cached != null) {
+            return cached;
+        }
         
-        if (cache.has(cacheKey)) {
-            return cache.get(cacheKey, UmapyoiCharacter.class);
+        if (cache.isKnownAbsent(characterId)) {
+            return null;
         }
         
         String url = buildUrl("/character/" + characterId);
@@ -86,13 +91,16 @@ public class UmapyoiApiClient {
         
         try (Response response = config.getHttpClient().newCall(request).execute()) {
             if (!response.isSuccessful()) {
+                if (response.code() == 404) {
+                    cache.markAbsent(characterId);
+                }
                 logger.warn("Character not found: {}", characterId);
                 return null;
             }
             
             String body = response.body() != null ? response.body().string() : "{}";
             UmapyoiCharacter character = config.getObjectMapper().readValue(body, UmapyoiCharacter.class);
-            cache.put(cacheKey, character);
+            cache.putById(CHARACTER_NAMESPACE, characterId, character);
             return character;
         }
     }
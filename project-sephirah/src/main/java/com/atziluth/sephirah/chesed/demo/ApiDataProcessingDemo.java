@@ -35,11 +35,11 @@ public class ApiDataProcessingDemo {
         logger.info("-".repeat(60));
         
         UmamusumeSorter sorter = new UmamusumeSorter();
-        List<Umamusume> sorted = sorter.mergeSort(apiCharacters, 
+        List<Umamusume> top = sorter.topK(apiCharacters, 3,
             Comparator.comparingInt(Umamusume::getTotalStats).reversed());
         
         logger.info("Top 3 by total stats:");
-        sorted.stream().limit(3).forEach(u -> 
+        top.forEach(u -> 
             logger.info("  {} - Total: {}", u.getName(), u.getTotalStats())
         );
         
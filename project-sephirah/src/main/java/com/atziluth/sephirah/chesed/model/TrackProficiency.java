@@ -77,6 +77,13 @@ public class TrackProficiency {
     public enum Grade {
         G(0), F(1), E(2), D(3), C(4), B(5), A(6), S(7);
         
+        private static final Grade[] BY_LETTER = new Grade[26];
+        static {
+            for (Grade grade : values()) {
+                BY_LETTER[grade.name().charAt(0) - 'A'] = grade;
+            }
+        }
+        
         private final int score;
         
         Grade(int score) {
@@ -89,5 +96,21 @@ public class TrackProficiency {
             score = Math.min(Math.max(score, 0), 7);
             return values()[score];
         }
+        
+        /**
+         * Parse a grade letter as shown on GameTora ("A", " s ") with an array lookup.
+         * @return the grade, or null if the text is not a single grade letter
+         */
+        public static Grade fromLetter(String letter) {
+            if (letter == null) {
+                return null;
+            }
+            String trimmed = letter.trim();
+            if (trimmed.length() != 1) {
+                return null;
+            }
+            char c = Character.toUpperCase(trimmed.charAt(0));
+            return c >= 'A' && c <= 'Z' ? BY_LETTER[c - 'A'] : null;
+        }
     }
 }
\ No newline at end of file
@@ -307,10 +307,18 @@ public class UmapyoiCharacter {
     }
     
     private Umamusume.Rarity determineRarity() {
-        if (this.gameId < 1010) return Umamusume.Rarity.UR;
-        else if (this.gameId < 1100) return Umamusume.Rarity.SSR;
-        else if (this.gameId < 2000) return Umamusume.Rarity.SR;
-        else if (this.gameId < 3000) return Umamusume.Rarity.R;
+        return rarityForGameId(this.gameId);
+    }
+    
+    /**
+     * Estimated rarity of a game ID, as used by {@link #toDomainModel()}.
+     * Needs no other field, so list entries can be classified without a full fetch.
+     */
+    public static Umamusume.Rarity rarityForGameId(int gameId) {
+        if (gameId < 1010) return Umamusume.Rarity.UR;
+        else if (gameId < 1100) return Umamusume.Rarity.SSR;
+        else if (gameId < 2000) return Umamusume.Rarity.SR;
+        else if (gameId < 3000) return Umamusume.Rarity.R;
         else return Umamusume.Rarity.N;
     }
     
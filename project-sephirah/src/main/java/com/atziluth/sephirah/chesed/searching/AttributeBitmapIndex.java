@@ -0,0 +1,381 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.TrackProficiency;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over the enum attributes of characters: rarity, type and the grade of each
+ * surface, distance and strategy aptitude.
+ * Each character gets a dense slot; every attribute value owns a bitmap of the slots that
+ * have it. Aptitude bitmaps are cumulative ("grade A or better"), so a threshold is one
+ * bitmap. A {@link Filter} is answered by OR-ing the bitmaps inside each clause and
+ * AND-ing the clauses, a few word operations for the whole roster.
+ * Reads share a lock; updates take it exclusively.
+ */
+public class AttributeBitmapIndex {
+    /** Aptitude slots, in the order GameTora lists them. */
+    public enum Aptitude {
+        TURF, DIRT, SHORT, MILE, MEDIUM, LONG, FRONT, PACE, LATE, END;
+
+        String gradeOf(Umamusume.Aptitudes aptitudes) {
+            switch (this) {
+                case TURF: return aptitudes.getTurfGrade();
+                case DIRT: return aptitudes.getDirtGrade();
+                case SHORT: return aptitudes.getShortDistance();
+                case MILE: return aptitudes.getMileDistance();
+                case MEDIUM: return aptitudes.getMediumDistance();
+                case LONG: return aptitudes.getLongDistance();
+                case FRONT: return aptitudes.getFrontStrategy();
+                case PACE: return aptitudes.getPaceStrategy();
+                case LATE: return aptitudes.getLateStrategy();
+                default: return aptitudes.getEndStrategy();
+            }
+        }
+    }
+
+    private static final Umamusume.Rarity[] RARITIES = Umamusume.Rarity.values();
+    private static final Umamusume.CharacterType[] TYPES = Umamusume.CharacterType.values();
+    private static final Aptitude[] APTITUDES = Aptitude.values();
+    private static final TrackProficiency.Grade[] GRADES = TrackProficiency.Grade.values();
+
+    /**
+     * Conjunction of clauses; each clause matches any of its values.
+     * An empty filter matches every indexed character.
+     */
+    public static final class Filter {
+        private final List<Clause> clauses = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+
+        /** Rarity is any of the given values */
+        public Filter rarity(Umamusume.Rarity... values) {
+            Umamusume.Rarity[] rarities = values.clone();
+            clauses.add(index -> {
+                BitSet[] any = new BitSet[rarities.length];
+                for (int i = 0; i < rarities.length; i++) {
+                    any[i] = index.byRarity[rarities[i].ordinal()];
+                }
+                return any;
+            });
+            descriptions.add("rarity in " + Arrays.toString(rarities));
+            return this;
+        }
+
+        /** Type is any of the given values */
+        public Filter type(Umamusume.CharacterType... values) {
+            Umamusume.CharacterType[] types = values.clone();
+            clauses.add(index -> {
+                BitSet[] any = new BitSet[types.length];
+                for (int i = 0; i < types.length; i++) {
+                    any[i] = index.byType[types[i].ordinal()];
+                }
+                return any;
+            });
+            descriptions.add("type in " + Arrays.toString(types));
+            return this;
+        }
+
+        /** The aptitude is graded at least {@code minimum} */
+        public Filter aptitudeAtLeast(Aptitude aptitude, TrackProficiency.Grade minimum) {
+            clauses.add(index -> new BitSet[] {index.atLeast[aptitude.ordinal()][minimum.ordinal()]});
+            descriptions.add(aptitude + " >= " + minimum);
+            return this;
+        }
+
+        /** At least one of the aptitudes is graded {@code minimum} or better */
+        public Filter anyAptitudeAtLeast(TrackProficiency.Grade minimum, Aptitude... values) {
+            Aptitude[] aptitudes = values.clone();
+            clauses.add(index -> {
+                BitSet[] any = new BitSet[aptitudes.length];
+                for (int i = 0; i < aptitudes.length; i++) {
+                    any[i] = index.atLeast[aptitudes[i].ordinal()][minimum.ordinal()];
+                }
+                return any;
+            });
+            descriptions.add("any of " + Arrays.toString(aptitudes) + " >= " + minimum);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return clauses.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return descriptions.isEmpty() ? "any" : String.join(" and ", descriptions);
+        }
+    }
+
+    /** One clause: the bitmaps whose union it accepts (callers must not modify them). */
+    private interface Clause {
+        BitSet[] bitmaps(AttributeBitmapIndex index);
+    }
+
+    private final BitSet[] byRarity = newBitmaps(RARITIES.length);
+    private final BitSet[] byType = newBitmaps(TYPES.length);
+    /** [aptitude][grade]: slots graded at least that grade */
+    private final BitSet[][] atLeast = new BitSet[APTITUDES.length][];
+    private final BitSet live = new BitSet();
+
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private int[] idBySlot = new int[64];
+    private int nextSlot = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public AttributeBitmapIndex() {
+        for (int a = 0; a < APTITUDES.length; a++) {
+            atLeast[a] = newBitmaps(GRADES.length);
+        }
+    }
+
+    /**
+     * Record the attributes of a character model. Attributes the model does not carry
+     * (null rarity, type or aptitude grades) keep their previous bits, so a partial model
+     * such as an estimate can be refined later.
+     */
+    public void put(int characterId, Umamusume model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(characterId);
+            if (model.getRarity() != null) {
+                assign(byRarity, slot, model.getRarity().ordinal());
+            }
+            if (model.getType() != null) {
+                assign(byType, slot, model.getType().ordinal());
+            }
+            if (model.getAptitudes() != null) {
+                for (Aptitude aptitude : APTITUDES) {
+                    TrackProficiency.Grade grade = TrackProficiency.Grade.fromLetter(aptitude.gradeOf(model.getAptitudes()));
+                    if (grade != null) {
+                        BitSet[] thresholds = atLeast[aptitude.ordinal()];
+                        for (int g = 0; g < thresholds.length; g++) {
+                            thresholds[g].set(slot, g <= grade.ordinal());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record only the rarity of a character
+     */
+    public void putRarity(int characterId, Umamusume.Rarity rarity) {
+        if (rarity == null) {
+            throw new IllegalArgumentException("Rarity cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            assign(byRarity, slotFor(characterId), rarity.ordinal());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int characterId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(characterId);
+            if (slot == null || !live.get(slot)) {
+                return;
+            }
+            // The slot stays reserved for the ID; only its bits go
+            live.clear(slot);
+            clearSlot(byRarity, slot);
+            clearSlot(byType, slot);
+            for (BitSet[] thresholds : atLeast) {
+                clearSlot(thresholds, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return IDs of the characters matching every clause, ascending
+     */
+    public int[] query(Filter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = evaluate(filter);
+            int[] ids = new int[matches.cardinality()];
+            int next = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                ids[next++] = idBySlot[slot];
+            }
+            Arrays.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(Filter filter) {
+        lock.readLock().lock();
+        try {
+            return evaluate(filter).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Test one character against a filter with single bit probes
+     */
+    public boolean matches(int characterId, Filter filter) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(characterId);
+            if (slot == null || !live.get(slot)) {
+                return false;
+            }
+            for (Clause clause : filter.clauses) {
+                boolean any = false;
+                for (BitSet bitmap : clause.bitmaps(this)) {
+                    if (bitmap.get(slot)) {
+                        any = true;
+                        break;
+                    }
+                }
+                if (!any) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int characterId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(characterId);
+            return slot != null && live.get(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            live.clear();
+            clearAll(byRarity);
+            clearAll(byType);
+            for (BitSet[] thresholds : atLeast) {
+                clearAll(thresholds);
+            }
+            slotById.clear();
+            nextSlot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> rarities = new LinkedHashMap<>();
+            for (Umamusume.Rarity rarity : RARITIES) {
+                rarities.put(rarity.name(), byRarity[rarity.ordinal()].cardinality());
+            }
+            // Grade G or better is every graded slot
+            BitSet graded = new BitSet();
+            for (BitSet[] thresholds : atLeast) {
+                graded.or(thresholds[0]);
+            }
+            return Map.of(
+                "characters", live.cardinality(),
+                "withAptitudes", graded.cardinality(),
+                "rarities", rarities
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet evaluate(Filter filter) {
+        BitSet result = (BitSet) live.clone();
+        for (Clause clause : filter.clauses) {
+            BitSet[] bitmaps = clause.bitmaps(this);
+            if (bitmaps.length == 1) {
+                result.and(bitmaps[0]);
+            } else {
+                BitSet any = new BitSet();
+                for (BitSet bitmap : bitmaps) {
+                    any.or(bitmap);
+                }
+                result.and(any);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int slotFor(int characterId) {
+        Integer slot = slotById.get(characterId);
+        if (slot == null) {
+            if (nextSlot == idBySlot.length) {
+                idBySlot = Arrays.copyOf(idBySlot, nextSlot * 2);
+            }
+            slot = nextSlot++;
+            idBySlot[slot] = characterId;
+            slotById.put(characterId, slot);
+        }
+        live.set(slot);
+        return slot;
+    }
+
+    private static void assign(BitSet[] bitmaps, int slot, int value) {
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i].set(slot, i == value);
+        }
+    }
+
+    private static void clearSlot(BitSet[] bitmaps, int slot) {
+        for (BitSet bitmap : bitmaps) {
+            bitmap.clear(slot);
+        }
+    }
+
+    private static void clearAll(BitSet[] bitmaps) {
+        for (BitSet bitmap : bitmaps) {
+            bitmap.clear();
+        }
+    }
+
+    private static BitSet[] newBitmaps(int count) {
+        BitSet[] bitmaps = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new BitSet();
+        }
+        return bitmaps;
+    }
+}
@@ -0,0 +1,279 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.TrackProficiency;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed advanced-search query, e.g.
+ * {@code rarity:SSR speed>=100 surface:turf>=A name~"gold"}.
+ * <p>
+ * Terms are separated by spaces (quote values that contain spaces) and all must hold:
+ * <ul>
+ *   <li>{@code rarity:SSR,UR}, {@code rarity>=SR}: rarity in a list or compared by rank</li>
+ *   <li>{@code type:runner,power}: character type in a list</li>
+ *   <li>{@code speed>=100}, {@code height<160}, {@code guts=80}: stats and height
+ *       ({@code speed stamina power guts intelligence height}; ops {@code >= > <= < = :})</li>
+ *   <li>{@code surface:turf>=A}, {@code distance:mile>B}, {@code strategy:front:A}, or just
+ *       {@code turf>=A}: aptitude grade at least (or above) a grade</li>
+ *   <li>{@code name~gold}: a name contains the text (kana and romaji folded);
+ *       {@code name:"Gold Ship"}: a name equals it</li>
+ * </ul>
+ * Predicates are grouped by the index that can answer them; {@link QueryPlanner} decides
+ * which group drives the search.
+ */
+public final class CharacterQuery {
+    private static final Pattern TERM = Pattern.compile(
+        "([a-z]+)(?::([a-z]+))?(>=|<=|>|<|=|~|:)(.+)", Pattern.CASE_INSENSITIVE);
+
+    private final String source;
+    private final StatRangeIndex.Query stats = new StatRangeIndex.Query();
+    private final AttributeBitmapIndex.Filter attributes = new AttributeBitmapIndex.Filter();
+    private final List<String> nameContains = new ArrayList<>();
+    private final List<String> nameEquals = new ArrayList<>();
+
+    private CharacterQuery(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @throws IllegalArgumentException on unknown fields, operators or values
+     */
+    public static CharacterQuery parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+        CharacterQuery query = new CharacterQuery(text.trim());
+        for (String token : tokenize(text)) {
+            Matcher term = TERM.matcher(token);
+            if (!term.matches()) {
+                throw new IllegalArgumentException("Cannot parse query term '" + token + "'");
+            }
+            query.add(term.group(1).toLowerCase(Locale.ROOT),
+                      term.group(2) != null ? term.group(2).toLowerCase(Locale.ROOT) : null,
+                      term.group(3), term.group(4));
+        }
+        return query;
+    }
+
+    public String getSource() { return source; }
+
+    /** @return stat and height bounds, or null if the query has none */
+    public StatRangeIndex.Query getStats() { return stats.isUnbounded() ? null : stats; }
+
+    /** @return rarity, type and aptitude clauses, or null if the query has none */
+    public AttributeBitmapIndex.Filter getAttributes() { return attributes.isEmpty() ? null : attributes; }
+
+    public List<String> getNameContains() { return Collections.unmodifiableList(nameContains); }
+    public List<String> getNameEquals() { return Collections.unmodifiableList(nameEquals); }
+
+    public boolean hasNameTerms() {
+        return !nameContains.isEmpty() || !nameEquals.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private void add(String field, String subField, String op, String value) {
+        switch (field) {
+            case "rarity":
+                rejectSubField(field, subField);
+                addRarity(op, value);
+                break;
+            case "type":
+                rejectSubField(field, subField);
+                requireOp(field, op, ":", "=");
+                addTypes(value);
+                break;
+            case "name":
+                rejectSubField(field, subField);
+                if (op.equals("~")) {
+                    nameContains.add(value);
+                } else {
+                    requireOp(field, op, ":", "=");
+                    nameEquals.add(value);
+                }
+                break;
+            case "surface":
+            case "distance":
+            case "strategy":
+                if (subField == null) {
+                    throw new IllegalArgumentException("'" + field + "' needs a kind, e.g. surface:turf>=A");
+                }
+                addAptitude(subField, op, value);
+                break;
+            default:
+                StatRangeIndex.Dimension dimension = dimension(field);
+                if (dimension != null) {
+                    rejectSubField(field, subField);
+                    addBound(dimension, op, value);
+                } else if (aptitude(field) != null) {
+                    rejectSubField(field, subField);
+                    addAptitude(field, op, value);
+                } else {
+                    throw new IllegalArgumentException("Unknown query field '" + field + "'");
+                }
+        }
+    }
+
+    private void addRarity(String op, String value) {
+        if (op.equals(":") || op.equals("=")) {
+            List<Umamusume.Rarity> rarities = new ArrayList<>();
+            for (String part : value.split(",")) {
+                rarities.add(rarity(part));
+            }
+            attributes.rarity(rarities.toArray(new Umamusume.Rarity[0]));
+            return;
+        }
+        Umamusume.Rarity pivot = rarity(value);
+        List<Umamusume.Rarity> rarities = new ArrayList<>();
+        for (Umamusume.Rarity rarity : Umamusume.Rarity.values()) {
+            int cmp = Integer.compare(rarity.ordinal(), pivot.ordinal());
+            boolean keep;
+            switch (op) {
+                case ">=": keep = cmp >= 0; break;
+                case ">": keep = cmp > 0; break;
+                case "<=": keep = cmp <= 0; break;
+                case "<": keep = cmp < 0; break;
+                default: throw new IllegalArgumentException("Operator '" + op + "' not supported for rarity");
+            }
+            if (keep) {
+                rarities.add(rarity);
+            }
+        }
+        attributes.rarity(rarities.toArray(new Umamusume.Rarity[0]));
+    }
+
+    private void addTypes(String value) {
+        List<Umamusume.CharacterType> types = new ArrayList<>();
+        for (String part : value.split(",")) {
+            try {
+                types.add(Umamusume.CharacterType.valueOf(part.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown character type '" + part + "'");
+            }
+        }
+        attributes.type(types.toArray(new Umamusume.CharacterType[0]));
+    }
+
+    private void addAptitude(String kind, String op, String value) {
+        AttributeBitmapIndex.Aptitude aptitude = aptitude(kind);
+        if (aptitude == null) {
+            throw new IllegalArgumentException("Unknown aptitude '" + kind + "'");
+        }
+        TrackProficiency.Grade grade = TrackProficiency.Grade.fromLetter(value);
+        if (grade == null) {
+            throw new IllegalArgumentException("Unknown grade '" + value + "'");
+        }
+        switch (op) {
+            case ">=":
+            case ":":
+                attributes.aptitudeAtLeast(aptitude, grade);
+                break;
+            case ">":
+                if (grade == TrackProficiency.Grade.S) {
+                    throw new IllegalArgumentException("No grade above S");
+                }
+                attributes.aptitudeAtLeast(aptitude, TrackProficiency.Grade.values()[grade.ordinal() + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Operator '" + op + "' not supported for aptitudes");
+        }
+    }
+
+    private void addBound(StatRangeIndex.Dimension dimension, String op, String value) {
+        int number;
+        try {
+            number = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + value + "' is not a number");
+        }
+        switch (op) {
+            case ">=": stats.atLeast(dimension, number); break;
+            case ">": stats.atLeast(dimension, number + 1); break;
+            case "<=": stats.atMost(dimension, number); break;
+            case "<": stats.atMost(dimension, number - 1); break;
+            case "=":
+            case ":": stats.between(dimension, number, number); break;
+            default: throw new IllegalArgumentException("Operator '" + op + "' not supported for " + dimension);
+        }
+    }
+
+    private static Umamusume.Rarity rarity(String value) {
+        try {
+            return Umamusume.Rarity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown rarity '" + value + "'");
+        }
+    }
+
+    private static StatRangeIndex.Dimension dimension(String field) {
+        for (StatRangeIndex.Dimension dimension : StatRangeIndex.Dimension.values()) {
+            if (dimension.name().equalsIgnoreCase(field)) {
+                return dimension;
+            }
+        }
+        return null;
+    }
+
+    private static AttributeBitmapIndex.Aptitude aptitude(String kind) {
+        for (AttributeBitmapIndex.Aptitude aptitude : AttributeBitmapIndex.Aptitude.values()) {
+            if (aptitude.name().equalsIgnoreCase(kind)) {
+                return aptitude;
+            }
+        }
+        return null;
+    }
+
+    private static void rejectSubField(String field, String subField) {
+        if (subField != null) {
+            throw new IllegalArgumentException("'" + field + "' does not take a kind");
+        }
+    }
+
+    private static void requireOp(String field, String op, String... allowed) {
+        for (String candidate : allowed) {
+            if (candidate.equals(op)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Operator '" + op + "' not supported for " + field);
+    }
+
+    /**
+     * Split on whitespace outside double quotes; quotes are dropped
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in query");
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
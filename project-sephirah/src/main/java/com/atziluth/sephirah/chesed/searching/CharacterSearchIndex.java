@@ -0,0 +1,276 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over the characters seen so far.
+ * Names (English and Japanese, folded and romanized by {@link NameNormalizer}) and
+ * descriptive text (profile, slogan, strengths, plus the biography and skills from GameTora
+ * enrichment) live in two {@link TrigramIndex}es so name
+ * hits can outrank mentions in prose. Characters are added or replaced one at a time as
+ * they are cached, and queries return ranked candidates without touching the network.
+ * Reads share a lock; updates take it exclusively.
+ */
+public class CharacterSearchIndex {
+    /** Weight of the name coverage relative to the text coverage */
+    private static final double NAME_WEIGHT = 2.0;
+    /** Added to the score when the query equals a name */
+    private static final double EXACT_NAME_BONUS = 10.0;
+
+    /** One ranked candidate. */
+    public static final class Hit {
+        private final int characterId;
+        private final double score;
+        private final double nameCoverage;
+        private final boolean exactName;
+
+        Hit(int characterId, double score, double nameCoverage, boolean exactName) {
+            this.characterId = characterId;
+            this.score = score;
+            this.nameCoverage = nameCoverage;
+            this.exactName = exactName;
+        }
+
+        public int getCharacterId() { return characterId; }
+        public double getScore() { return score; }
+        /** Share of the query's trigrams found in the best matching name, 0 to 1 */
+        public double getNameCoverage() { return nameCoverage; }
+        public boolean isExactName() { return exactName; }
+
+        @Override
+        public String toString() {
+            return String.format("%d (%.2f%s)", characterId, score, exactName ? ", exact" : "");
+        }
+    }
+
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex text = new TrigramIndex();
+    private final Map<String, Integer> idByExactName = new HashMap<>();
+    private final Map<Integer, String[]> exactKeysById = new HashMap<>();
+    // Text parts are kept per source so API and GameTora updates can arrive in any order
+    private final Map<Integer, String> apiTextById = new HashMap<>();
+    private final Map<Integer, String> wikiTextById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a character's API fields
+     */
+    public void index(UmapyoiCharacter character) {
+        if (character == null || character.getGameId() <= 0) {
+            return;
+        }
+        int id = character.getGameId();
+        // Keys are folded once here; queries are folded the same way
+        NameNormalizer.SearchKeys keys = NameNormalizer.SearchKeys.of(character.getNameEnglish(), character.getNameJapanese());
+        String[] exactKeys = {keys.getEnglish(), keys.getJapanese(), keys.getLooseEnglish(), keys.getLooseJapanese()};
+        String apiText = NameNormalizer.fold(join(character.getProfile(), character.getSlogan(), character.getStrengths()));
+
+        lock.writeLock().lock();
+        try {
+            removeExactNames(id);
+            exactKeysById.put(id, exactKeys);
+            for (String key : exactKeys) {
+                if (!key.isEmpty()) {
+                    idByExactName.put(key, id);
+                }
+            }
+            names.put(id, join(exactKeys));
+            apiTextById.put(id, apiText);
+            reindexText(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the GameTora-derived text (biography, skills) of a character
+     */
+    public void indexEnrichment(int characterId, Umamusume enriched) {
+        if (enriched == null || characterId <= 0) {
+            return;
+        }
+        StringBuilder wikiText = new StringBuilder();
+        if (enriched.getBiography() != null) {
+            wikiText.append(enriched.getBiography());
+        }
+        for (String skill : enriched.getSkills()) {
+            wikiText.append('\n').append(skill);
+        }
+
+        String folded = NameNormalizer.fold(wikiText.toString());
+        lock.writeLock().lock();
+        try {
+            wikiTextById.put(characterId, folded);
+            reindexText(characterId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int characterId) {
+        lock.writeLock().lock();
+        try {
+            removeExactNames(characterId);
+            exactKeysById.remove(characterId);
+            apiTextById.remove(characterId);
+            wikiTextById.remove(characterId);
+            names.remove(characterId);
+            text.remove(characterId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ID of the character whose English or Japanese name equals the query
+     *         (ignoring case, width, kana type and romanization), or -1
+     */
+    public int exactMatch(String name) {
+        lock.readLock().lock();
+        try {
+            Integer id = exactId(NameNormalizer.fold(name), NameNormalizer.looseKey(name));
+            return id != null ? id : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank indexed characters against a query.
+     * @param minScore candidates scoring below this are dropped (a full name hit scores 2, a
+     *                 full text hit 1, an exact name adds 10)
+     * @param limit maximum number of hits
+     * @return hits, best first
+     */
+    public List<Hit> search(String query, double minScore, int limit) {
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String folded = NameNormalizer.fold(query);
+        String loose = NameNormalizer.looseKey(query);
+
+        lock.readLock().lock();
+        try {
+            // Per document: [best name coverage, text coverage]
+            Map<Integer, double[]> scores = new HashMap<>();
+            addNameCoverage(names.match(folded), scores);
+            if (!loose.isEmpty() && !loose.equals(folded)) {
+                // Romanized or spaced variants meet the romaji keys
+                addNameCoverage(names.match(loose), scores);
+            }
+            TrigramIndex.Matches textMatches = text.match(folded);
+            for (int i = 0; i < textMatches.size(); i++) {
+                scores.computeIfAbsent(textMatches.docId(i), id -> new double[2])[1] = textMatches.coverage(i);
+            }
+            Integer exactId = exactId(folded, loose);
+
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+                boolean exact = exactId != null && exactId.equals(entry.getKey());
+                double[] coverage = entry.getValue();
+                double score = NAME_WEIGHT * coverage[0] + coverage[1] + (exact ? EXACT_NAME_BONUS : 0);
+                if (score >= minScore) {
+                    hits.add(new Hit(entry.getKey(), score, coverage[0], exact));
+                }
+            }
+            hits.sort((a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score)
+                : Integer.compare(a.characterId, b.characterId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int characterId) {
+        lock.readLock().lock();
+        try {
+            return names.contains(characterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return exactKeysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            text.clear();
+            idByExactName.clear();
+            exactKeysById.clear();
+            apiTextById.clear();
+            wikiTextById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            return Map.of(
+                "characters", exactKeysById.size(),
+                "nameTrigrams", names.distinctTrigrams(),
+                "textTrigrams", text.distinctTrigrams()
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reindexText(int id) {
+        text.put(id, join(apiTextById.get(id), wikiTextById.get(id)));
+    }
+
+    private static void addNameCoverage(TrigramIndex.Matches matches, Map<Integer, double[]> scores) {
+        for (int i = 0; i < matches.size(); i++) {
+            double[] coverage = scores.computeIfAbsent(matches.docId(i), id -> new double[2]);
+            coverage[0] = Math.max(coverage[0], matches.coverage(i));
+        }
+    }
+
+    private Integer exactId(String folded, String loose) {
+        Integer id = folded.isEmpty() ? null : idByExactName.get(folded);
+        if (id == null && !loose.isEmpty()) {
+            id = idByExactName.get(loose);
+        }
+        return id;
+    }
+
+    private void removeExactNames(int id) {
+        String[] previous = exactKeysById.get(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : previous) {
+            idByExactName.remove(key, id);
+        }
+    }
+
+    private static String join(String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isEmpty()) {
+                joined.append(part).append('\n');
+            }
+        }
+        return joined.toString();
+    }
+}
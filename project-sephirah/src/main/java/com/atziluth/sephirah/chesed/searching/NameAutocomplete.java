@@ -0,0 +1,266 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name suggestions for partially typed input.
+ * Holds the English, Japanese and internal names of every known character plus a popularity
+ * score (a base value and a count of lookups), and answers prefix queries from a
+ * {@link NameTrie} snapshot. The snapshot is rebuilt on the next query after names change;
+ * popularity-only changes are picked up at most every {@link #POPULARITY_REFRESH_MS} so a
+ * busy lookup path does not rebuild the tree on every call.
+ * Misspelled whole names are resolved from a {@link NameBKTree} over the same keys, rebuilt
+ * only when names change.
+ */
+public class NameAutocomplete {
+    /** Completions kept per prefix */
+    public static final int MAX_COMPLETIONS = 10;
+    private static final long POPULARITY_REFRESH_MS = 30_000;
+    /** Typos tolerated per this many characters of input */
+    private static final int CHARS_PER_TYPO = 5;
+    private static final int MAX_TYPOS = 3;
+
+    private final Map<Integer, String[]> namesById = new ConcurrentHashMap<>();
+    private final Map<Integer, NameNormalizer.SearchKeys> keysById = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> basePopularity = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> lookups = new ConcurrentHashMap<>();
+
+    private volatile NameTrie trie = NameTrie.empty();
+    private volatile boolean namesChanged = false;
+    private volatile boolean popularityChanged = false;
+    private volatile long builtAt = 0;
+    private volatile NameBKTree typoTree = NameBKTree.empty();
+    private volatile boolean typoTreeStale = false;
+
+    /**
+     * Add or replace the names of a character
+     * @param internalName Umapyoi's internal English name, or null
+     */
+    public void add(int characterId, String englishName, String japaneseName, String internalName) {
+        if (characterId <= 0) {
+            return;
+        }
+        String[] names = {englishName, japaneseName, internalName};
+        String[] previous = namesById.put(characterId, names);
+        if (previous == null || !Arrays.equals(previous, names)) {
+            keysById.put(characterId, NameNormalizer.SearchKeys.of(englishName, japaneseName));
+            namesChanged = true;
+            typoTreeStale = true;
+        }
+    }
+
+    public void index(UmapyoiCharacter character) {
+        if (character != null) {
+            add(character.getGameId(), character.getNameEnglish(), character.getNameJapanese(),
+                character.getNameInternal());
+        }
+    }
+
+    /**
+     * Set the popularity a character starts with before any lookups
+     */
+    public void setBasePopularity(int characterId, long popularity) {
+        basePopularity.put(characterId, popularity);
+        popularityChanged = true;
+    }
+
+    /**
+     * Count a lookup of a character towards its popularity
+     */
+    public void recordLookup(int characterId) {
+        lookups.merge(characterId, 1L, Long::sum);
+        popularityChanged = true;
+    }
+
+    /**
+     * Complete a partially typed name. Matches the start of any English, Japanese (kana
+     * folded) or internal name, and the romaji reading of Japanese names.
+     * @return up to limit suggestions, one per character, most popular first
+     */
+    public List<NameTrie.Completion> suggest(String prefix, int limit) {
+        String folded = NameNormalizer.fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        NameTrie current = current();
+        List<NameTrie.Completion> results = current.complete(folded, limit);
+        String loose = NameNormalizer.looseKey(prefix);
+        if (results.size() < limit && !loose.isEmpty() && !loose.equals(folded)) {
+            for (NameTrie.Completion completion : current.complete(loose, limit)) {
+                if (results.size() == limit) {
+                    break;
+                }
+                if (!NameTrie.containsCharacter(results, completion.getCharacterId())) {
+                    results.add(completion);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Resolve a whole name typed with a few mistakes ("silense suzka"): one edit is allowed
+     * per {@link #CHARS_PER_TYPO} characters, up to {@link #MAX_TYPOS}; inputs shorter than
+     * four characters must match exactly.
+     * @return IDs of the characters with the closest names, closest first
+     */
+    public int[] closestIds(String name) {
+        String folded = NameNormalizer.fold(name);
+        if (folded.length() < 4) {
+            return new int[0];
+        }
+        int maxTypos = Math.min(MAX_TYPOS, Math.max(1, folded.length() / CHARS_PER_TYPO));
+        NameBKTree tree = currentTypoTree();
+        int[] ids = tree.closestIds(folded, maxTypos);
+        String loose = NameNormalizer.looseKey(name);
+        if (ids.length == 0 && !loose.isEmpty() && !loose.equals(folded)) {
+            ids = tree.closestIds(loose, maxTypos);
+        }
+        return ids;
+    }
+
+    /**
+     * Check a known character's names against name terms
+     * @param contains terms that must each occur in a name (see {@link NameNormalizer.SearchKeys#matches})
+     * @param equals terms that must each equal a whole name
+     */
+    public boolean matches(int characterId, List<String> contains, List<String> equals) {
+        NameNormalizer.SearchKeys keys = keysById.get(characterId);
+        if (keys == null) {
+            return false;
+        }
+        for (String term : contains) {
+            if (!keys.matches(term)) {
+                return false;
+            }
+        }
+        for (String term : equals) {
+            if (!keys.matchesExactly(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if one of a known character's names contains the term (see
+     *         {@link NameNormalizer.SearchKeys#matches}); false for unknown characters
+     */
+    public boolean nameContains(int characterId, String term) {
+        NameNormalizer.SearchKeys keys = keysById.get(characterId);
+        return keys != null && keys.matches(term);
+    }
+
+    /**
+     * @return true if a known character's English or Japanese name equals the term
+     */
+    public boolean nameEquals(int characterId, String term) {
+        NameNormalizer.SearchKeys keys = keysById.get(characterId);
+        return keys != null && keys.matchesExactly(term);
+    }
+
+    /**
+     * Scan the precomputed keys of every known character
+     * @return IDs matching all name terms, ascending
+     */
+    public int[] idsMatching(List<String> contains, List<String> equals) {
+        return keysById.keySet().stream()
+            .filter(id -> matches(id, contains, equals))
+            .mapToInt(Integer::intValue)
+            .sorted()
+            .toArray();
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    public void clear() {
+        namesById.clear();
+        keysById.clear();
+        lookups.clear();
+        namesChanged = true;
+        typoTreeStale = true;
+    }
+
+    public Map<String, Object> getStats() {
+        NameTrie current = trie;
+        return Map.of(
+            "characters", namesById.size(),
+            "keys", current.keyCount(),
+            "typoKeys", typoTree.keyCount(),
+            "lookupsTracked", lookups.size()
+        );
+    }
+
+    private NameTrie current() {
+        boolean stale = namesChanged
+            || (popularityChanged && System.currentTimeMillis() - builtAt >= POPULARITY_REFRESH_MS);
+        if (!stale) {
+            return trie;
+        }
+        synchronized (this) {
+            if (namesChanged || popularityChanged) {
+                // Clear the flags first so updates racing with the build trigger another one
+                namesChanged = false;
+                popularityChanged = false;
+                trie = build();
+                builtAt = System.currentTimeMillis();
+            }
+            return trie;
+        }
+    }
+
+    private NameBKTree currentTypoTree() {
+        if (!typoTreeStale) {
+            return typoTree;
+        }
+        synchronized (this) {
+            if (typoTreeStale) {
+                typoTreeStale = false;
+                NameBKTree.Builder builder = new NameBKTree.Builder();
+                for (Map.Entry<Integer, String[]> entry : namesById.entrySet()) {
+                    int id = entry.getKey();
+                    String[] names = entry.getValue();
+                    builder.add(NameNormalizer.fold(names[0]), id);
+                    builder.add(NameNormalizer.looseKey(names[0]), id);
+                    builder.add(NameNormalizer.fold(names[2]), id);
+                    builder.add(NameNormalizer.fold(names[1]), id);
+                    builder.add(NameNormalizer.looseKey(names[1]), id);
+                }
+                typoTree = builder.build();
+            }
+            return typoTree;
+        }
+    }
+
+    private NameTrie build() {
+        NameTrie.Builder builder = new NameTrie.Builder(MAX_COMPLETIONS);
+        for (Map.Entry<Integer, String[]> entry : namesById.entrySet()) {
+            int id = entry.getKey();
+            String englishName = entry.getValue()[0];
+            String japaneseName = entry.getValue()[1];
+            String internalName = entry.getValue()[2];
+            long popularity = basePopularity.getOrDefault(id, 0L) + lookups.getOrDefault(id, 0L);
+            String shown = englishName != null ? englishName : Objects.toString(japaneseName, internalName);
+            if (shown == null) {
+                continue;
+            }
+            builder.add(NameNormalizer.fold(englishName), shown, id, popularity);
+            builder.add(NameNormalizer.looseKey(englishName), shown, id, popularity);
+            builder.add(NameNormalizer.fold(internalName), shown, id, popularity);
+            if (japaneseName != null) {
+                builder.add(NameNormalizer.fold(japaneseName), japaneseName, id, popularity);
+                builder.add(NameNormalizer.looseKey(japaneseName), shown, id, popularity);
+            }
+        }
+        return builder.build();
+    }
+}
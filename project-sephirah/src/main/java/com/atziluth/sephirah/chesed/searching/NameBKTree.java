@@ -0,0 +1,207 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable BK-tree over name keys for typo-tolerant lookup.
+ * Every child hangs off its parent at their Levenshtein distance, so by the triangle
+ * inequality a search for keys within {@code k} of a query only descends into children
+ * whose edge lies within {@code k} of the query's distance to the parent. Build it with a
+ * {@link Builder}; to reflect new names, build a new tree.
+ */
+public class NameBKTree {
+    /** A key within the searched distance and the characters that have it. */
+    public static final class Match {
+        private final String key;
+        private final int distance;
+        private final int[] characterIds;
+
+        Match(String key, int distance, int[] characterIds) {
+            this.key = key;
+            this.distance = distance;
+            this.characterIds = characterIds;
+        }
+
+        public String getKey() { return key; }
+        public int getDistance() { return distance; }
+        public int[] getCharacterIds() { return characterIds.clone(); }
+
+        @Override
+        public String toString() {
+            return key + " (" + distance + ")";
+        }
+    }
+
+    private static final class Node {
+        final String key;
+        final int[] characterIds;
+        /** Ascending edge distances, parallel to children */
+        final int[] edges;
+        final Node[] children;
+
+        Node(String key, int[] characterIds, int[] edges, Node[] children) {
+            this.key = key;
+            this.characterIds = characterIds;
+            this.edges = edges;
+            this.children = children;
+        }
+    }
+
+    /** Collects keys, then freezes them into a {@link NameBKTree}. */
+    public static final class Builder {
+        private static final class Draft {
+            final String key;
+            final List<Integer> characterIds = new ArrayList<>(1);
+            final TreeMap<Integer, Draft> children = new TreeMap<>();
+
+            Draft(String key) {
+                this.key = key;
+            }
+        }
+
+        private Draft root;
+        private int keys = 0;
+
+        /**
+         * @param key already folded name key (e.g. {@link NameNormalizer#fold})
+         */
+        public Builder add(String key, int characterId) {
+            if (key == null || key.isEmpty()) {
+                return this;
+            }
+            if (root == null) {
+                root = new Draft(key);
+                keys++;
+            }
+            Draft node = root;
+            while (true) {
+                int distance = distance(key, node.key);
+                if (distance == 0) {
+                    if (!node.characterIds.contains(characterId)) {
+                        node.characterIds.add(characterId);
+                    }
+                    return this;
+                }
+                Draft child = node.children.get(distance);
+                if (child == null) {
+                    child = new Draft(key);
+                    child.characterIds.add(characterId);
+                    node.children.put(distance, child);
+                    keys++;
+                    return this;
+                }
+                node = child;
+            }
+        }
+
+        public NameBKTree build() {
+            return new NameBKTree(root == null ? null : freeze(root), keys);
+        }
+
+        private Node freeze(Draft draft) {
+            int[] edges = new int[draft.children.size()];
+            Node[] children = new Node[edges.length];
+            int i = 0;
+            for (Map.Entry<Integer, Draft> entry : draft.children.entrySet()) {
+                edges[i] = entry.getKey();
+                children[i] = freeze(entry.getValue());
+                i++;
+            }
+            int[] ids = draft.characterIds.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(draft.key, ids, edges, children);
+        }
+    }
+
+    private final Node root;
+    private final int keys;
+
+    private NameBKTree(Node root, int keys) {
+        this.root = root;
+        this.keys = keys;
+    }
+
+    public static NameBKTree empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * @param query already folded query
+     * @return keys within maxDistance edits of the query, closest first
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null || query == null || query.isEmpty() || maxDistance < 0) {
+            return matches;
+        }
+        search(root, query, maxDistance, matches);
+        matches.sort((a, b) -> a.distance != b.distance
+            ? Integer.compare(a.distance, b.distance)
+            : a.key.compareTo(b.key));
+        return matches;
+    }
+
+    /**
+     * Characters of the closest keys, in {@link #search} order without repeats
+     */
+    public int[] closestIds(String query, int maxDistance) {
+        Map<Integer, Boolean> ids = new LinkedHashMap<>();
+        for (Match match : search(query, maxDistance)) {
+            for (int id : match.characterIds) {
+                ids.putIfAbsent(id, Boolean.TRUE);
+            }
+        }
+        return ids.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public int keyCount() {
+        return keys;
+    }
+
+    private static void search(Node node, String query, int maxDistance, List<Match> matches) {
+        int distance = distance(query, node.key);
+        if (distance <= maxDistance) {
+            matches.add(new Match(node.key, distance, node.characterIds));
+        }
+        // Only edges in [distance - k, distance + k] can lead to keys within k
+        int from = Arrays.binarySearch(node.edges, distance - maxDistance);
+        for (int i = from >= 0 ? from : -from - 1; i < node.edges.length; i++) {
+            if (node.edges[i] > distance + maxDistance) {
+                break;
+            }
+            search(node.children[i], query, maxDistance, matches);
+        }
+    }
+
+    /**
+     * Levenshtein distance with two rolling rows
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
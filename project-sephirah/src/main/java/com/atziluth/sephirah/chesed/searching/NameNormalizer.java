@@ -0,0 +1,225 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Folding rules that make Japanese and romanized names comparable.
+ * <ul>
+ *   <li>{@link #fold}: NFKC (half-width katakana and full-width Latin become their standard
+ *       forms), lower case, hiragana mapped onto katakana</li>
+ *   <li>{@link #toRomaji}: Hepburn-style transliteration of the kana in a folded string</li>
+ *   <li>{@link #looseKey}: romaji with marks, separators and long vowels squeezed out, so
+ *       "スペシャルウィーク", "supesharu wiiku" and "Supesharu Uīku" can meet</li>
+ * </ul>
+ * Keys are meant to be computed once per character at index time ({@link SearchKeys}).
+ */
+public final class NameNormalizer {
+    private static final char HIRAGANA_FIRST = 'ぁ';
+    private static final char HIRAGANA_LAST = 'ゖ';
+    private static final int HIRAGANA_TO_KATAKANA = 0x60;
+    private static final char KATAKANA_FIRST = 'ァ';
+    private static final char KATAKANA_LAST = 'ヺ';
+    private static final char LONG_VOWEL = 'ー';
+    private static final char SMALL_TSU = 'ッ';
+
+    /** Romaji per katakana, indexed from KATAKANA_FIRST; small kana carry their own rules */
+    private static final String[] ROMAJI = new String[KATAKANA_LAST - KATAKANA_FIRST + 1];
+    static {
+        String table =
+            "ァa アa ィi イi ゥu ウu ェe エe ォo オo " +
+            "カka ガga キki ギgi クku グgu ケke ゲge コko ゴgo " +
+            "サsa ザza シshi ジji スsu ズzu セse ゼze ソso ゾzo " +
+            "タta ダda チchi ヂji ツtsu ヅzu テte デde トto ドdo " +
+            "ナna ニni ヌnu ネne ノno " +
+            "ハha バba パpa ヒhi ビbi ピpi フfu ブbu プpu ヘhe ベbe ペpe ホho ボbo ポpo " +
+            "マma ミmi ムmu メme モmo " +
+            "ャya ヤya ュyu ユyu ョyo ヨyo " +
+            "ラra リri ルru レre ロro " +
+            "ヮwa ワwa ヰi ヱe ヲo ンn ヴvu ヵka ヶke ヷva ヸvi ヹve ヺvo";
+        for (String pair : table.split(" ")) {
+            ROMAJI[pair.charAt(0) - KATAKANA_FIRST] = pair.substring(1);
+        }
+    }
+
+    /** Folded and loose keys of one character's names. */
+    public static final class SearchKeys {
+        private final String english;
+        private final String japanese;
+        private final String looseEnglish;
+        private final String looseJapanese;
+
+        private SearchKeys(String englishName, String japaneseName) {
+            this.english = fold(englishName);
+            this.japanese = fold(japaneseName);
+            this.looseEnglish = looseKey(englishName);
+            this.looseJapanese = looseKey(japaneseName);
+        }
+
+        public static SearchKeys of(String englishName, String japaneseName) {
+            return new SearchKeys(englishName, japaneseName);
+        }
+
+        public String getEnglish() { return english; }
+        public String getJapanese() { return japanese; }
+        public String getLooseEnglish() { return looseEnglish; }
+        /** Romaji reading of the Japanese name */
+        public String getLooseJapanese() { return looseJapanese; }
+
+        /**
+         * Substring match of a query against any form of the names
+         */
+        public boolean matches(String query) {
+            String folded = fold(query);
+            if (folded.isEmpty()) {
+                return false;
+            }
+            if (english.contains(folded) || japanese.contains(folded)) {
+                return true;
+            }
+            String loose = looseKey(query);
+            return loose.length() >= 2 && (looseEnglish.contains(loose) || looseJapanese.contains(loose));
+        }
+
+        /**
+         * Whole-name match of a query against any form of the names
+         */
+        public boolean matchesExactly(String query) {
+            String folded = fold(query);
+            if (folded.isEmpty()) {
+                return false;
+            }
+            if (folded.equals(english) || folded.equals(japanese)) {
+                return true;
+            }
+            String loose = looseKey(query);
+            return !loose.isEmpty() && (loose.equals(looseEnglish) || loose.equals(looseJapanese));
+        }
+    }
+
+    private NameNormalizer() {
+    }
+
+    /**
+     * NFKC, trim, lower case, hiragana as katakana
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).trim().toLowerCase(Locale.ROOT);
+        char[] chars = normalized.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= HIRAGANA_FIRST && chars[i] <= HIRAGANA_LAST) {
+                chars[i] = (char) (chars[i] + HIRAGANA_TO_KATAKANA);
+            }
+        }
+        return new String(chars);
+    }
+
+    public static boolean containsKana(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= HIRAGANA_FIRST && c <= HIRAGANA_LAST) || (c >= KATAKANA_FIRST && c <= LONG_VOWEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transliterate the katakana of a folded string; other characters pass through.
+     * The long-vowel mark is kept as "-" so callers can decide how to treat it.
+     */
+    public static String toRomaji(String folded) {
+        StringBuilder out = new StringBuilder(folded.length() * 2);
+        String last = null;   // romaji of the previous kana, null after a non-kana
+        boolean geminate = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c == SMALL_TSU) {
+                geminate = true;
+                continue;
+            }
+            if (c == LONG_VOWEL) {
+                out.append('-');
+                last = null;
+                continue;
+            }
+            String syllable = c >= KATAKANA_FIRST && c <= KATAKANA_LAST ? ROMAJI[c - KATAKANA_FIRST] : null;
+            if (syllable == null) {
+                out.append(c);
+                last = null;
+                geminate = false;
+                continue;
+            }
+            if (isSmallYa(c) && last != null && last.length() >= 2 && last.endsWith("i")) {
+                // キャ kya, but シャ sha, チョ cho, ジュ ju
+                out.setLength(out.length() - 1);
+                boolean palatal = last.equals("shi") || last.equals("chi") || last.equals("ji");
+                String combined = palatal ? syllable.substring(1) : syllable;
+                out.append(combined);
+                last = last.substring(0, last.length() - 1) + combined;
+                continue;
+            }
+            if (isSmallVowel(c) && last != null) {
+                // ウィ wi, ファ fa, ティ ti, シェ she
+                out.setLength(out.length() - 1);
+                String combined = (last.length() == 1 ? (last.equals("u") ? "w" : "") : "") + syllable;
+                out.append(combined);
+                last = last.substring(0, last.length() - 1) + combined;
+                continue;
+            }
+            if (geminate) {
+                out.append(syllable.charAt(0));
+                geminate = false;
+            }
+            out.append(syllable);
+            last = syllable;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Romaji with diacritics, separators and long vowels removed and vowel runs collapsed.
+     * Works on kana and on already romanized input alike.
+     */
+    public static String looseKey(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String romaji = toRomaji(fold(text));
+        String stripped = Normalizer.normalize(romaji, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                continue;
+            }
+            if (out.length() > 0) {
+                char previous = out.charAt(out.length() - 1);
+                // Long vowels: "ii" -> "i", "ou" -> "o"
+                if (isVowel(c) && (c == previous || (previous == 'o' && c == 'u'))) {
+                    continue;
+                }
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static boolean isSmallYa(char c) {
+        return c == 'ャ' || c == 'ュ' || c == 'ョ';
+    }
+
+    private static boolean isSmallVowel(char c) {
+        return c == 'ァ' || c == 'ィ' || c == 'ゥ' || c == 'ェ' || c == 'ォ';
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'i' || c == 'u' || c == 'e' || c == 'o';
+    }
+}
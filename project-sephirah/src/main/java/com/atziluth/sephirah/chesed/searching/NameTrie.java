@@ -0,0 +1,215 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable radix tree over name keys for prefix completion.
+ * Every node stores its best completions (distinct characters, most popular first), so a
+ * lookup is one walk down the prefix and no subtree traversal. Build it with a
+ * {@link Builder}; to reflect new names or popularity, build a new tree.
+ */
+public class NameTrie {
+    /** One suggested name. */
+    public static final class Completion {
+        private final String name;
+        private final int characterId;
+        private final long popularity;
+
+        Completion(String name, int characterId, long popularity) {
+            this.name = name;
+            this.characterId = characterId;
+            this.popularity = popularity;
+        }
+
+        public String getName() { return name; }
+        public int getCharacterId() { return characterId; }
+        public long getPopularity() { return popularity; }
+
+        @Override
+        public String toString() {
+            return name + " (" + characterId + ")";
+        }
+    }
+
+    /** Compressed node: the edge label leading to it, children keyed by their first char. */
+    private static final class Node {
+        final String label;
+        final char[] firstChars;
+        final Node[] children;
+        final Completion[] top;
+
+        Node(String label, char[] firstChars, Node[] children, Completion[] top) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(firstChars, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    /** Collects keys, then compresses them into a {@link NameTrie}. */
+    public static final class Builder {
+        private static final class Draft {
+            final TreeMap<Character, Draft> children = new TreeMap<>();
+            final List<Completion> terminal = new ArrayList<>(1);
+        }
+
+        private final int maxCompletions;
+        private final Draft root = new Draft();
+        private int keys = 0;
+
+        /**
+         * @param maxCompletions completions kept per prefix; lookups cannot ask for more
+         */
+        public Builder(int maxCompletions) {
+            if (maxCompletions <= 0) {
+                throw new IllegalArgumentException("maxCompletions must be positive");
+            }
+            this.maxCompletions = maxCompletions;
+        }
+
+        /**
+         * @param key already folded lookup key (e.g. {@link NameNormalizer#fold})
+         * @param name name shown for completions reached through this key
+         */
+        public Builder add(String key, String name, int characterId, long popularity) {
+            if (key == null || key.isEmpty() || name == null) {
+                return this;
+            }
+            Draft node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Draft());
+            }
+            node.terminal.add(new Completion(name, characterId, popularity));
+            keys++;
+            return this;
+        }
+
+        public NameTrie build() {
+            return new NameTrie(compress("", root), keys, maxCompletions);
+        }
+
+        private Node compress(String label, Draft draft) {
+            // Fold single-child chains without completions into one edge
+            StringBuilder edge = new StringBuilder(label);
+            while (draft.terminal.isEmpty() && draft.children.size() == 1 && edge.length() > 0) {
+                Map.Entry<Character, Draft> only = draft.children.firstEntry();
+                edge.append(only.getKey());
+                draft = only.getValue();
+            }
+
+            char[] firstChars = new char[draft.children.size()];
+            Node[] children = new Node[draft.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Draft> entry : draft.children.entrySet()) {
+                firstChars[i] = entry.getKey();
+                children[i] = compress(String.valueOf(entry.getKey()), entry.getValue());
+                i++;
+            }
+            return new Node(edge.toString(), firstChars, children, best(draft.terminal, children));
+        }
+
+        private Completion[] best(List<Completion> terminal, Node[] children) {
+            List<Completion> candidates = new ArrayList<>(terminal);
+            for (Node child : children) {
+                Collections.addAll(candidates, child.top);
+            }
+            candidates.sort(BY_RANK);
+            List<Completion> top = new ArrayList<>(Math.min(candidates.size(), maxCompletions));
+            for (Completion candidate : candidates) {
+                if (top.size() == maxCompletions) {
+                    break;
+                }
+                if (!containsCharacter(top, candidate.characterId)) {
+                    top.add(candidate);
+                }
+            }
+            return top.toArray(new Completion[0]);
+        }
+    }
+
+    private static final Comparator<Completion> BY_RANK = (a, b) -> a.popularity != b.popularity
+        ? Long.compare(b.popularity, a.popularity)
+        : a.name.compareTo(b.name);
+
+    private final Node root;
+    private final int keys;
+    private final int maxCompletions;
+
+    private NameTrie(Node root, int keys, int maxCompletions) {
+        this.root = root;
+        this.keys = keys;
+        this.maxCompletions = maxCompletions;
+    }
+
+    public static NameTrie empty() {
+        return new Builder(1).build();
+    }
+
+    /**
+     * @param prefix folded prefix; an empty prefix returns the overall most popular names
+     * @return up to limit completions, one per character, most popular first
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        Node node = find(prefix == null ? "" : prefix);
+        if (node == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int count = Math.min(limit, node.top.length);
+        return new ArrayList<>(Arrays.asList(node.top).subList(0, count));
+    }
+
+    public int keyCount() {
+        return keys;
+    }
+
+    public int getMaxCompletions() {
+        return maxCompletions;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            String label = child.label;
+            int common = 0;
+            while (common < label.length() && i + common < prefix.length()
+                   && label.charAt(common) == prefix.charAt(i + common)) {
+                common++;
+            }
+            if (i + common == prefix.length()) {
+                // Prefix ends on or inside this edge
+                return child;
+            }
+            if (common < label.length()) {
+                return null;
+            }
+            i += common;
+            node = child;
+        }
+        return node;
+    }
+
+    static boolean containsCharacter(List<Completion> completions, int characterId) {
+        for (Completion completion : completions) {
+            if (completion.characterId == characterId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
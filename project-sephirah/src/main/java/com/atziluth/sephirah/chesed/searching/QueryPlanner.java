@@ -0,0 +1,156 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Turns a {@link CharacterQuery} into an execution plan over the in-memory indexes.
+ * <p>
+ * Each predicate group has one access path: stat/height bounds use the {@link StatRangeIndex},
+ * rarity/type/aptitude clauses the {@link AttributeBitmapIndex}, name terms a scan of the
+ * precomputed keys in {@link NameAutocomplete}. The planner estimates the rows each path
+ * returns (exact counts for the two indexes, a fixed selectivity for names, which can only
+ * be known by scanning), drives the search with the smallest, and checks the other groups
+ * per candidate as residual probes.
+ */
+public class QueryPlanner {
+    /** Assumed share of the roster matching one name term */
+    private static final double NAME_SELECTIVITY = 0.05;
+
+    /** Ways to produce or test candidates. */
+    public enum AccessPath { STATS, ATTRIBUTES, NAMES, ROSTER }
+
+    private final StatRangeIndex statIndex;
+    private final AttributeBitmapIndex attributeIndex;
+    private final NameAutocomplete names;
+
+    public QueryPlanner(StatRangeIndex statIndex, AttributeBitmapIndex attributeIndex, NameAutocomplete names) {
+        this.statIndex = statIndex;
+        this.attributeIndex = attributeIndex;
+        this.names = names;
+    }
+
+    /** One access path with its row estimate. */
+    private static final class Step {
+        final AccessPath path;
+        final long estimatedRows;
+
+        Step(AccessPath path, long estimatedRows) {
+            this.path = path;
+            this.estimatedRows = estimatedRows;
+        }
+    }
+
+    /** A chosen driving path plus residual probes. */
+    public final class Plan {
+        private final CharacterQuery query;
+        private final Step driver;
+        private final List<Step> residuals;
+
+        private Plan(CharacterQuery query, Step driver, List<Step> residuals) {
+            this.query = query;
+            this.driver = driver;
+            this.residuals = residuals;
+        }
+
+        public AccessPath getDriver() { return driver.path; }
+
+        /**
+         * @return IDs of the characters matching the whole query, ascending
+         */
+        public int[] execute() {
+            int[] candidates = fetch(driver.path);
+            int[] matches = new int[candidates.length];
+            int count = 0;
+            for (int id : candidates) {
+                if (passesResiduals(id)) {
+                    matches[count++] = id;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        /**
+         * @return e.g. "ATTRIBUTES (~12 rows) -> filter STATS (~40), NAMES (~20)"
+         */
+        public String explain() {
+            StringBuilder text = new StringBuilder()
+                .append(driver.path).append(" (~").append(driver.estimatedRows).append(" rows)");
+            if (!residuals.isEmpty()) {
+                text.append(" -> filter ");
+                for (int i = 0; i < residuals.size(); i++) {
+                    Step step = residuals.get(i);
+                    text.append(i > 0 ? ", " : "").append(step.path).append(" (~").append(step.estimatedRows).append(')');
+                }
+            }
+            return text.toString();
+        }
+
+        @Override
+        public String toString() {
+            return query + " => " + explain();
+        }
+
+        private int[] fetch(AccessPath path) {
+            switch (path) {
+                case STATS:
+                    return sorted(statIndex.query(query.getStats()));
+                case ATTRIBUTES:
+                    return attributeIndex.query(query.getAttributes());
+                case NAMES:
+                    return names.idsMatching(query.getNameContains(), query.getNameEquals());
+                default:
+                    return attributeIndex.query(new AttributeBitmapIndex.Filter());
+            }
+        }
+
+        private boolean passesResiduals(int id) {
+            // Residuals are ordered most selective first, so misses are found early
+            for (Step step : residuals) {
+                boolean pass;
+                switch (step.path) {
+                    case STATS:
+                        pass = statIndex.matches(id, query.getStats());
+                        break;
+                    case ATTRIBUTES:
+                        pass = attributeIndex.matches(id, query.getAttributes());
+                        break;
+                    default:
+                        pass = names.matches(id, query.getNameContains(), query.getNameEquals());
+                }
+                if (!pass) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public Plan plan(CharacterQuery query) {
+        List<Step> steps = new ArrayList<>();
+        if (query.getAttributes() != null) {
+            steps.add(new Step(AccessPath.ATTRIBUTES, attributeIndex.count(query.getAttributes())));
+        }
+        if (query.getStats() != null) {
+            steps.add(new Step(AccessPath.STATS, statIndex.count(query.getStats())));
+        }
+        if (query.hasNameTerms()) {
+            int terms = query.getNameContains().size() + query.getNameEquals().size();
+            long estimate = Math.max(1, Math.round(names.size() * Math.pow(NAME_SELECTIVITY, terms)));
+            steps.add(new Step(AccessPath.NAMES, estimate));
+        }
+        if (steps.isEmpty()) {
+            return new Plan(query, new Step(AccessPath.ROSTER, attributeIndex.size()), new ArrayList<>());
+        }
+        // Stable sort: on equal estimates the cheaper index (list order above) drives
+        steps.sort(Comparator.comparingLong(step -> step.estimatedRows));
+        return new Plan(query, steps.get(0), new ArrayList<>(steps.subList(1, steps.size())));
+    }
+
+    private static int[] sorted(int[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+}
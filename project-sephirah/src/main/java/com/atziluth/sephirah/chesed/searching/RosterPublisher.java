@@ -0,0 +1,163 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes {@link RosterSnapshot}s for lock-free readers.
+ * <p>
+ * Writers only drop changes into a concurrent staging map and make sure one rebuild is
+ * queued on the executor; the rebuild drains the staging map, builds the next snapshot
+ * from the current one and publishes it with a single reference swap. Readers call
+ * {@link #current()} and never wait: they get either the old or the new snapshot,
+ * never a mix. Bursts of updates (a page of fetches, an enrichment batch) coalesce into
+ * one rebuild.
+ */
+public class RosterPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(RosterPublisher.class);
+
+    /** A staged change; a null character removes the ID */
+    private static final class Change {
+        final UmapyoiCharacter character;
+        final Umamusume model;
+        /** The model is estimated from API data, not reported by GameTora */
+        final boolean estimated;
+
+        Change(UmapyoiCharacter character, Umamusume model, boolean estimated) {
+            this.character = character;
+            this.model = model;
+            this.estimated = estimated;
+        }
+    }
+
+    private final Executor executor;
+    private final AtomicReference<RosterSnapshot> current = new AtomicReference<>(RosterSnapshot.empty());
+    private final Map<Integer, Change> staged = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean(false);
+    /** Serializes rebuilds so versions are published in order; readers never take it */
+    private final Object rebuildLock = new Object();
+    private volatile long rebuilds = 0;
+
+    /**
+     * @param executor where rebuilds run, off the threads that report changes
+     */
+    public RosterPublisher(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Lock-free read of the latest published roster
+     */
+    public RosterSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Stage a new or changed character for the next snapshot
+     * @param model its GameTora-enriched domain model; null keeps the one already published
+     */
+    public void update(UmapyoiCharacter character, Umamusume model) {
+        stage(character, model, model == null);
+    }
+
+    /**
+     * Stage a character whose model is only estimated from API data.
+     * The estimate never replaces an enriched model, staged or published.
+     */
+    public void updateEstimate(UmapyoiCharacter character, Umamusume model) {
+        stage(character, model, true);
+    }
+
+    public void remove(int characterId) {
+        staged.put(characterId, new Change(null, null, false));
+        scheduleRebuild();
+    }
+
+    /**
+     * Build and publish the staged changes on the calling thread
+     * @return the snapshot that includes every change staged before the call
+     */
+    public RosterSnapshot publishNow() {
+        rebuild();
+        return current.get();
+    }
+
+    public Map<String, Object> getStats() {
+        RosterSnapshot snapshot = current.get();
+        return Map.of(
+            "version", snapshot.getVersion(),
+            "characters", snapshot.size(),
+            "staged", staged.size(),
+            "rebuilds", rebuilds
+        );
+    }
+
+    private void stage(UmapyoiCharacter character, Umamusume model, boolean estimated) {
+        if (character == null) {
+            throw new IllegalArgumentException("Character cannot be null");
+        }
+        staged.merge(character.getGameId(), new Change(character, model, estimated),
+            // A later estimate keeps a staged enriched model, a later change without a model any staged one
+            (older, newer) -> (newer.model == null || (newer.estimated && !older.estimated)) && older.model != null
+                ? new Change(newer.character, older.model, older.estimated)
+                : newer);
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::rebuild);
+            } catch (RejectedExecutionException e) {
+                // Executor shut down: publish on the caller instead of losing the change
+                rebuild();
+            }
+        }
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            // Clear the flag first: changes staged from here on queue another rebuild
+            rebuildQueued.set(false);
+            if (staged.isEmpty()) {
+                return;
+            }
+            RosterSnapshot previous = current.get();
+            RosterSnapshot.Builder builder = new RosterSnapshot.Builder(previous);
+            Iterator<Map.Entry<Integer, Change>> changes = staged.entrySet().iterator();
+            while (changes.hasNext()) {
+                Map.Entry<Integer, Change> entry = changes.next();
+                Change change = entry.getValue();
+                // Only drop the entry if no newer change replaced it meanwhile
+                if (staged.remove(entry.getKey(), change)) {
+                    if (change.character == null) {
+                        builder.remove(entry.getKey());
+                    } else if (change.estimated) {
+                        builder.putEstimate(change.character, change.model);
+                    } else {
+                        builder.put(change.character, change.model);
+                    }
+                }
+            }
+            RosterSnapshot next = builder.build(previous.getVersion() + 1);
+            current.set(next);
+            rebuilds++;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Published {}", next);
+            }
+        }
+    }
+}
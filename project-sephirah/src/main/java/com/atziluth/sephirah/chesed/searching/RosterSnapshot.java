@@ -0,0 +1,284 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.UmapyoiCharacter;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of every character fetched so far: the characters by ID, an
+ * exact-name index over the folded and loose name keys, and rarity and type bitmaps.
+ * <p>
+ * Nothing in a snapshot changes after construction, so any number of threads can read
+ * one without locks and always see the same consistent roster. Updates go through a
+ * {@link Builder} seeded from the previous snapshot and are published by
+ * {@link RosterPublisher}.
+ */
+public final class RosterSnapshot {
+    private static final RosterSnapshot EMPTY = new Builder(null).build(0);
+
+    private final long version;
+    /** Ascending; position i holds characters[i] and models[i] */
+    private final int[] ids;
+    private final UmapyoiCharacter[] characters;
+    private final Umamusume[] models;
+    /** Name keys of characters[i], reused across snapshots until the character changes */
+    private final NameNormalizer.SearchKeys[] keys;
+    /** Positions whose model is still estimated from API data */
+    private final BitSet estimated;
+    /** Folded or loose name key -> positions of the characters with that name */
+    private final Map<String, int[]> positionsByName;
+    private final BitSet[] byRarity;
+    private final BitSet[] byType;
+
+    private RosterSnapshot(long version, int[] ids, UmapyoiCharacter[] characters, Umamusume[] models,
+                           NameNormalizer.SearchKeys[] keys, BitSet estimated) {
+        this.version = version;
+        this.ids = ids;
+        this.characters = characters;
+        this.models = models;
+        this.keys = keys;
+        this.estimated = estimated;
+        this.positionsByName = new HashMap<>();
+        this.byRarity = newBitmaps(Umamusume.Rarity.values().length);
+        this.byType = newBitmaps(Umamusume.CharacterType.values().length);
+        for (int i = 0; i < ids.length; i++) {
+            indexName(keys[i].getEnglish(), i);
+            indexName(keys[i].getJapanese(), i);
+            indexName(keys[i].getLooseEnglish(), i);
+            indexName(keys[i].getLooseJapanese(), i);
+            if (models[i].getRarity() != null) {
+                byRarity[models[i].getRarity().ordinal()].set(i);
+            }
+            if (models[i].getType() != null) {
+                byType[models[i].getType().ordinal()].set(i);
+            }
+        }
+    }
+
+    public static RosterSnapshot empty() {
+        return EMPTY;
+    }
+
+    /** Incremented by every publish; 0 for the empty snapshot */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the character, or null if it is not in this snapshot
+     */
+    public UmapyoiCharacter get(int characterId) {
+        int i = Arrays.binarySearch(ids, characterId);
+        return i >= 0 ? characters[i] : null;
+    }
+
+    /**
+     * @return the newest domain model of a character (GameTora-enriched once available,
+     *         estimated before), or null if it is not in this snapshot
+     */
+    public Umamusume getModel(int characterId) {
+        int i = Arrays.binarySearch(ids, characterId);
+        return i >= 0 ? models[i] : null;
+    }
+
+    /**
+     * @return true if the character's model is estimated from API data rather than
+     *         reported by GameTora, false if it is enriched or not in this snapshot
+     */
+    public boolean isEstimated(int characterId) {
+        int i = Arrays.binarySearch(ids, characterId);
+        return i >= 0 && estimated.get(i);
+    }
+
+    public boolean contains(int characterId) {
+        return Arrays.binarySearch(ids, characterId) >= 0;
+    }
+
+    /**
+     * @return every character, in ID order
+     */
+    public List<UmapyoiCharacter> getCharacters() {
+        return Collections.unmodifiableList(Arrays.asList(characters));
+    }
+
+    /**
+     * Whole-name lookup in English, Japanese or romaji, ignoring case, width and spacing
+     * @return matching characters in ID order
+     */
+    public List<UmapyoiCharacter> findByName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        int[] positions = positionsByName.get(NameNormalizer.fold(name));
+        if (positions == null) {
+            positions = positionsByName.get(NameNormalizer.looseKey(name));
+        }
+        List<UmapyoiCharacter> results = new ArrayList<>();
+        if (positions != null) {
+            for (int i : positions) {
+                results.add(characters[i]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return characters with any of the rarities, in ID order
+     */
+    public List<UmapyoiCharacter> withRarity(Umamusume.Rarity... rarities) {
+        BitSet any = new BitSet();
+        for (Umamusume.Rarity rarity : rarities) {
+            any.or(byRarity[rarity.ordinal()]);
+        }
+        return charactersAt(any);
+    }
+
+    /**
+     * @return characters of any of the types, in ID order
+     */
+    public List<UmapyoiCharacter> ofType(Umamusume.CharacterType... types) {
+        BitSet any = new BitSet();
+        for (Umamusume.CharacterType type : types) {
+            any.or(byType[type.ordinal()]);
+        }
+        return charactersAt(any);
+    }
+
+    @Override
+    public String toString() {
+        return "RosterSnapshot v" + version + " (" + ids.length + " characters)";
+    }
+
+    private List<UmapyoiCharacter> charactersAt(BitSet positions) {
+        List<UmapyoiCharacter> results = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            results.add(characters[i]);
+        }
+        return results;
+    }
+
+    private void indexName(String key, int position) {
+        if (key.isEmpty()) {
+            return;
+        }
+        int[] positions = positionsByName.get(key);
+        if (positions == null) {
+            positionsByName.put(key, new int[] {position});
+        } else if (positions[positions.length - 1] != position) {
+            int[] grown = Arrays.copyOf(positions, positions.length + 1);
+            grown[positions.length] = position;
+            positionsByName.put(key, grown);
+        }
+    }
+
+    private static BitSet[] newBitmaps(int count) {
+        BitSet[] bitmaps = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new BitSet();
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Collects changes on top of a previous snapshot. Not thread-safe; one builder per rebuild.
+     */
+    public static final class Builder {
+        private final Map<Integer, UmapyoiCharacter> characters = new HashMap<>();
+        private final Map<Integer, Umamusume> models = new HashMap<>();
+        private final Map<Integer, NameNormalizer.SearchKeys> keys = new HashMap<>();
+        private final Set<Integer> estimated = new HashSet<>();
+
+        /**
+         * @param previous snapshot to start from, or null for an empty roster
+         */
+        public Builder(RosterSnapshot previous) {
+            if (previous != null) {
+                for (int i = 0; i < previous.ids.length; i++) {
+                    characters.put(previous.ids[i], previous.characters[i]);
+                    models.put(previous.ids[i], previous.models[i]);
+                    keys.put(previous.ids[i], previous.keys[i]);
+                    if (previous.estimated.get(i)) {
+                        estimated.add(previous.ids[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add or replace a character
+         * @param model its GameTora-enriched domain model; null keeps the previous model,
+         *        or estimates one
+         */
+        public Builder put(UmapyoiCharacter character, Umamusume model) {
+            if (model == null) {
+                return putEstimate(character, null);
+            }
+            int id = putCharacter(character);
+            models.put(id, model);
+            estimated.remove(id);
+            return this;
+        }
+
+        /**
+         * Add or replace a character whose model is only estimated from API data.
+         * An enriched model already in the roster is kept.
+         * @param model the estimated model; null estimates one from the character
+         */
+        public Builder putEstimate(UmapyoiCharacter character, Umamusume model) {
+            int id = putCharacter(character);
+            if (!models.containsKey(id) || estimated.contains(id)) {
+                models.put(id, model != null ? model : character.toDomainModel());
+                estimated.add(id);
+            }
+            return this;
+        }
+
+        public Builder remove(int characterId) {
+            characters.remove(characterId);
+            models.remove(characterId);
+            keys.remove(characterId);
+            estimated.remove(characterId);
+            return this;
+        }
+
+        public RosterSnapshot build(long version) {
+            int[] ids = characters.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            UmapyoiCharacter[] sortedCharacters = new UmapyoiCharacter[ids.length];
+            Umamusume[] sortedModels = new Umamusume[ids.length];
+            NameNormalizer.SearchKeys[] sortedKeys = new NameNormalizer.SearchKeys[ids.length];
+            BitSet sortedEstimated = new BitSet(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                sortedCharacters[i] = characters.get(ids[i]);
+                sortedModels[i] = models.get(ids[i]);
+                sortedKeys[i] = keys.get(ids[i]);
+                sortedEstimated.set(i, estimated.contains(ids[i]));
+            }
+            return new RosterSnapshot(version, ids, sortedCharacters, sortedModels, sortedKeys, sortedEstimated);
+        }
+
+        private int putCharacter(UmapyoiCharacter character) {
+            if (character == null) {
+                throw new IllegalArgumentException("Character cannot be null");
+            }
+            int id = character.getGameId();
+            if (characters.put(id, character) != character || !keys.containsKey(id)) {
+                // Names are only folded again when a new instance arrives
+                keys.put(id, NameNormalizer.SearchKeys.of(character.getNameEnglish(), character.getNameJapanese()));
+            }
+            return id;
+        }
+    }
+}
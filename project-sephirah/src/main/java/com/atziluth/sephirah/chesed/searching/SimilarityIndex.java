@@ -0,0 +1,488 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.TrackProficiency;
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Nearest-neighbour index over character profiles.
+ * <p>
+ * Each character is embedded as a vector of its five stats, the grades of its ten
+ * aptitudes, its height and a one-hot character type, scaled so that 20 stat points, one
+ * aptitude grade, 5 cm and a different type weigh about the same. Vectors are rows of one
+ * flat {@code float[]} matrix. A vantage-point tree over the rows answers k-nearest queries
+ * by pruning every subtree whose distance shell cannot hold a closer row.
+ * <p>
+ * Rows are never rewritten: an update appends a new row and tombstones the old one, rows
+ * added since the last build are scanned linearly, and the tree is rebuilt once those plus
+ * the tombstones reach a quarter of it. Reads share a lock; updates take it exclusively.
+ */
+public class SimilarityIndex {
+    private static final Umamusume.CharacterType[] TYPES = Umamusume.CharacterType.values();
+    private static final AttributeBitmapIndex.Aptitude[] APTITUDES = AttributeBitmapIndex.Aptitude.values();
+
+    private static final int STAT_OFFSET = 0;
+    private static final int APTITUDE_OFFSET = 5;
+    private static final int HEIGHT_OFFSET = APTITUDE_OFFSET + APTITUDES.length;
+    private static final int TYPE_OFFSET = HEIGHT_OFFSET + 1;
+    /** Vector length */
+    public static final int DIMENSIONS = TYPE_OFFSET + TYPES.length;
+
+    private static final float STAT_SCALE = 1f / 20;
+    private static final float HEIGHT_SCALE = 1f / 5;
+    /** Unknown grades sit midway between G and S so they pull towards neither end */
+    private static final float UNKNOWN_GRADE = (TrackProficiency.Grade.values().length - 1) / 2f;
+    /** Rows added since the last build tolerated before a rebuild, at minimum */
+    private static final int MIN_REBUILD_THRESHOLD = 32;
+    /** Segments this small are scanned instead of split further */
+    private static final int LEAF_SIZE = 16;
+
+    /** One result: a character and its distance from the query. */
+    public static final class Neighbor {
+        private final int characterId;
+        private final double distance;
+
+        Neighbor(int characterId, double distance) {
+            this.characterId = characterId;
+            this.distance = distance;
+        }
+
+        public int getCharacterId() { return characterId; }
+        public double getDistance() { return distance; }
+
+        @Override
+        public String toString() {
+            return characterId + String.format(" (%.2f)", distance);
+        }
+    }
+
+    // Row storage: row r occupies vectors[r * DIMENSIONS .. (r + 1) * DIMENSIONS)
+    private float[] vectors = new float[64 * DIMENSIONS];
+    private int[] idByRow = new int[64];
+    private int rowCount = 0;
+    private final BitSet dead = new BitSet();
+    private int deadCount = 0;
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+
+    // Tree over rows 0..treeSize-1, stored in tree order so subtrees are contiguous:
+    // row lo is the vantage point of segment [lo, hi), rows no farther than radius[lo]
+    // fill [lo + 1, mid), the rest [mid, hi); segments of LEAF_SIZE rows or less are scanned
+    private float[] radius = new float[0];
+    private int treeSize = 0;
+    /** Rows at or after this one were added after the last build */
+    private int firstPendingRow = 0;
+    private int rebuilds = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Embed a character model; height comes separately because API models may not carry it
+     */
+    public static float[] embed(Umamusume model, int height) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        float[] vector = new float[DIMENSIONS];
+        Umamusume.Stats stats = model.getStats();
+        vector[STAT_OFFSET] = stats.getSpeed() * STAT_SCALE;
+        vector[STAT_OFFSET + 1] = stats.getStamina() * STAT_SCALE;
+        vector[STAT_OFFSET + 2] = stats.getPower() * STAT_SCALE;
+        vector[STAT_OFFSET + 3] = stats.getGuts() * STAT_SCALE;
+        vector[STAT_OFFSET + 4] = stats.getIntelligence() * STAT_SCALE;
+        for (AttributeBitmapIndex.Aptitude aptitude : APTITUDES) {
+            TrackProficiency.Grade grade = model.getAptitudes() != null
+                ? TrackProficiency.Grade.fromLetter(aptitude.gradeOf(model.getAptitudes()))
+                : null;
+            vector[APTITUDE_OFFSET + aptitude.ordinal()] = grade != null ? grade.ordinal() : UNKNOWN_GRADE;
+        }
+        vector[HEIGHT_OFFSET] = height * HEIGHT_SCALE;
+        if (model.getType() != null) {
+            vector[TYPE_OFFSET + model.getType().ordinal()] = 1f;
+        }
+        return vector;
+    }
+
+    /**
+     * Add or replace a character's profile
+     */
+    public void put(int characterId, Umamusume model, int height) {
+        put(characterId, embed(model, height));
+    }
+
+    /**
+     * Add or replace a character's vector (as built by {@link #embed})
+     */
+    public void put(int characterId, float[] vector) {
+        if (vector == null || vector.length != DIMENSIONS) {
+            throw new IllegalArgumentException("Vector must have " + DIMENSIONS + " dimensions");
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(characterId);
+            if (row != null && Arrays.equals(vectors, row * DIMENSIONS, (row + 1) * DIMENSIONS,
+                                             vector, 0, DIMENSIONS)) {
+                return;
+            }
+            tombstone(characterId);
+            if (rowCount == idByRow.length) {
+                idByRow = Arrays.copyOf(idByRow, rowCount * 2);
+                vectors = Arrays.copyOf(vectors, rowCount * 2 * DIMENSIONS);
+            }
+            System.arraycopy(vector, 0, vectors, rowCount * DIMENSIONS, DIMENSIONS);
+            idByRow[rowCount] = characterId;
+            rowById.put(characterId, rowCount++);
+            rebuildIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int characterId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(characterId);
+            rebuildIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} characters closest to an indexed character, excluding itself
+     * @return neighbours nearest first; empty if the character is not indexed
+     */
+    public List<Neighbor> nearest(int characterId, int k) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(characterId);
+            if (row == null) {
+                return new ArrayList<>();
+            }
+            return search(Arrays.copyOfRange(vectors, row * DIMENSIONS, (row + 1) * DIMENSIONS), k, row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} characters closest to a vector (as built by {@link #embed})
+     * @return neighbours nearest first
+     */
+    public List<Neighbor> nearest(float[] vector, int k) {
+        if (vector == null || vector.length != DIMENSIONS) {
+            throw new IllegalArgumentException("Vector must have " + DIMENSIONS + " dimensions");
+        }
+        lock.readLock().lock();
+        try {
+            return search(vector, k, -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return distance between two indexed characters, or NaN if either is not indexed
+     */
+    public double distance(int firstId, int secondId) {
+        lock.readLock().lock();
+        try {
+            Integer first = rowById.get(firstId);
+            Integer second = rowById.get(secondId);
+            if (first == null || second == null) {
+                return Double.NaN;
+            }
+            return Math.sqrt(squaredDistance(vectors, first * DIMENSIONS, second * DIMENSIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int characterId) {
+        lock.readLock().lock();
+        try {
+            return rowById.containsKey(characterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            rowById.clear();
+            dead.clear();
+            deadCount = 0;
+            rowCount = 0;
+            treeSize = 0;
+            firstPendingRow = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            return Map.of(
+                "characters", rowById.size(),
+                "dimensions", DIMENSIONS,
+                "treeSize", treeSize,
+                "pending", rowCount - firstPendingRow,
+                "tombstones", deadCount,
+                "rebuilds", rebuilds
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Neighbor> search(float[] query, int k, int excludedRow) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative: " + k);
+        }
+        NeighborHeap heap = new NeighborHeap(k);
+        if (k == 0) {
+            return heap.toList(idByRow);
+        }
+        if (treeSize > 0) {
+            searchTree(query, 0, treeSize, heap, excludedRow);
+        }
+        for (int row = firstPendingRow; row < rowCount; row++) {
+            offer(query, row, heap, excludedRow);
+        }
+        return heap.toList(idByRow);
+    }
+
+    private void searchTree(float[] query, int lo, int hi, NeighborHeap heap, int excludedRow) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int row = lo; row < hi; row++) {
+                offer(query, row, heap, excludedRow);
+            }
+            return;
+        }
+        float d = offer(query, lo, heap, excludedRow);
+        int mid = (lo + 1 + hi) >>> 1;
+        float r = radius[lo];
+        // Visit the side the query falls in first; the other only if the shell can still win
+        if (d < r) {
+            searchTree(query, lo + 1, mid, heap, excludedRow);
+            if (d + heap.bound() >= r) {
+                searchTree(query, mid, hi, heap, excludedRow);
+            }
+        } else {
+            searchTree(query, mid, hi, heap, excludedRow);
+            if (d - heap.bound() <= r) {
+                searchTree(query, lo + 1, mid, heap, excludedRow);
+            }
+        }
+    }
+
+    /**
+     * @return the row's distance from the query, offered to the heap if the row is live
+     */
+    private float offer(float[] query, int row, NeighborHeap heap, int excludedRow) {
+        float d = (float) Math.sqrt(squaredDistance(query, row));
+        if (row != excludedRow && !dead.get(row)) {
+            heap.offer(row, d);
+        }
+        return d;
+    }
+
+    private float squaredDistance(float[] query, int row) {
+        int base = row * DIMENSIONS;
+        float sum = 0f;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float delta = query[d] - vectors[base + d];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    private static float squaredDistance(float[] matrix, int a, int b) {
+        float sum = 0f;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float delta = matrix[a + d] - matrix[b + d];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    private void tombstone(int characterId) {
+        Integer row = rowById.remove(characterId);
+        if (row != null && !dead.get(row)) {
+            dead.set(row);
+            deadCount++;
+        }
+    }
+
+    private void rebuildIfNeeded() {
+        int pending = rowCount - firstPendingRow;
+        int live = rowById.size();
+        if (pending + deadCount >= Math.max(MIN_REBUILD_THRESHOLD, live / 4)) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        // Build over the live rows, then lay the matrix out in tree order
+        int size = rowById.size();
+        int[] order = new int[size];
+        int next = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!dead.get(row)) {
+                order[next++] = row;
+            }
+        }
+        radius = new float[size];
+        if (size > 0) {
+            build(0, size, order, new float[size]);
+        }
+
+        float[] treeVectors = new float[Math.max(64, size) * DIMENSIONS];
+        int[] ids = new int[Math.max(64, size)];
+        for (int position = 0; position < size; position++) {
+            System.arraycopy(vectors, order[position] * DIMENSIONS, treeVectors, position * DIMENSIONS, DIMENSIONS);
+            ids[position] = idByRow[order[position]];
+            rowById.put(ids[position], position);
+        }
+        vectors = treeVectors;
+        idByRow = ids;
+        rowCount = size;
+        dead.clear();
+        deadCount = 0;
+        treeSize = size;
+        firstPendingRow = size;
+        rebuilds++;
+    }
+
+    private void build(int lo, int hi, int[] order, float[] distances) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        // Random vantage points keep the tree balanced on sorted or clustered input
+        swap(order, distances, lo, lo + ThreadLocalRandom.current().nextInt(hi - lo));
+        int vantage = order[lo] * DIMENSIONS;
+        for (int i = lo + 1; i < hi; i++) {
+            distances[i] = (float) Math.sqrt(squaredDistance(vectors, order[i] * DIMENSIONS, vantage));
+        }
+        int mid = (lo + 1 + hi) >>> 1;
+        select(order, distances, lo + 1, hi - 1, mid);
+        // Rows before mid are no farther than the median, rows from mid on no closer
+        radius[lo] = distances[mid];
+        build(lo + 1, mid, order, distances);
+        build(mid, hi, order, distances);
+    }
+
+    /**
+     * Quickselect on distances: place the k-th smallest in [lo, hi] at position k
+     */
+    private static void select(int[] order, float[] distances, int lo, int hi, int k) {
+        while (lo < hi) {
+            float pivot = distances[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (distances[i] < pivot) i++;
+                while (distances[j] > pivot) j--;
+                if (i <= j) {
+                    swap(order, distances, i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(int[] order, float[] distances, int a, int b) {
+        float distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+        int row = order[a];
+        order[a] = order[b];
+        order[b] = row;
+    }
+
+    /**
+     * Bounded max-heap of (row, distance) on primitive arrays; the root is the farthest kept
+     */
+    private static final class NeighborHeap {
+        private final int[] rows;
+        private final float[] distances;
+        private int size;
+
+        NeighborHeap(int k) {
+            rows = new int[k];
+            distances = new float[k];
+        }
+
+        /** Distance a row must beat to be kept */
+        float bound() {
+            return size < rows.length ? Float.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(int row, float distance) {
+            if (size < rows.length) {
+                int i = size++;
+                while (i > 0 && distances[(i - 1) >>> 1] < distance) {
+                    int parent = (i - 1) >>> 1;
+                    rows[i] = rows[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                rows[i] = row;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    rows[i] = rows[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                rows[i] = row;
+                distances[i] = distance;
+            }
+        }
+
+        List<Neighbor> toList(int[] idByRow) {
+            Neighbor[] sorted = new Neighbor[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = new Neighbor(idByRow[rows[i]], distances[i]);
+            }
+            Arrays.sort(sorted, (a, b) -> Double.compare(a.distance, b.distance));
+            return new ArrayList<>(Arrays.asList(sorted));
+        }
+    }
+}
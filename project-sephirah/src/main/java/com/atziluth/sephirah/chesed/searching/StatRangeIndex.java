@@ -0,0 +1,470 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import com.atziluth.sephirah.chesed.model.Umamusume;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multi-attribute range index (k-d tree) over the five stats plus height.
+ * <p>
+ * Points live in flat per-dimension arrays laid out as an implicit balanced k-d tree: the
+ * node of a segment [lo, hi) is its middle position and splits on dimension depth % 6.
+ * Every node also keeps the bounding box and live count of its subtree, so a range query
+ * skips subtrees outside the range and counts subtrees fully inside it without visiting
+ * them.
+ * <p>
+ * Updates are incremental: a changed or removed character only tombstones its tree slot
+ * (and decrements the counts on its path), new points wait in a small unindexed buffer
+ * that queries scan, and the tree is rebuilt once buffer plus tombstones reach a quarter
+ * of it. Reads share a lock; updates take it exclusively.
+ */
+public class StatRangeIndex {
+    /** Indexed attributes. */
+    public enum Dimension { SPEED, STAMINA, POWER, GUTS, INTELLIGENCE, HEIGHT }
+
+    private static final int DIMENSIONS = Dimension.values().length;
+    /** Buffered updates tolerated before a rebuild, at minimum */
+    private static final int MIN_REBUILD_THRESHOLD = 32;
+
+    /** Inclusive bounds per dimension; unset dimensions are unbounded. */
+    public static final class Query {
+        private final int[] min = new int[DIMENSIONS];
+        private final int[] max = new int[DIMENSIONS];
+
+        public Query() {
+            Arrays.fill(min, Integer.MIN_VALUE);
+            Arrays.fill(max, Integer.MAX_VALUE);
+        }
+
+        public Query atLeast(Dimension dimension, int value) {
+            min[dimension.ordinal()] = Math.max(min[dimension.ordinal()], value);
+            return this;
+        }
+
+        public Query atMost(Dimension dimension, int value) {
+            max[dimension.ordinal()] = Math.min(max[dimension.ordinal()], value);
+            return this;
+        }
+
+        public Query between(Dimension dimension, int low, int high) {
+            return atLeast(dimension, low).atMost(dimension, high);
+        }
+
+        public boolean isUnbounded() {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                if (min[d] != Integer.MIN_VALUE || max[d] != Integer.MAX_VALUE) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contains(int[] point) {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                if (point[d] < min[d] || point[d] > max[d]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (Dimension dimension : Dimension.values()) {
+                int d = dimension.ordinal();
+                if (min[d] != Integer.MIN_VALUE || max[d] != Integer.MAX_VALUE) {
+                    text.append(text.length() > 0 ? ", " : "").append(dimension).append(' ')
+                        .append(min[d] == Integer.MIN_VALUE ? "*" : String.valueOf(min[d])).append("..")
+                        .append(max[d] == Integer.MAX_VALUE ? "*" : String.valueOf(max[d]));
+                }
+            }
+            return text.length() > 0 ? text.toString() : "any";
+        }
+    }
+
+    // Tree: positions 0..treeSize-1 in k-d order
+    private int treeSize = 0;
+    private int[] treeIds = new int[0];
+    private int[][] coords = new int[DIMENSIONS][0];
+    private int[][] boxMin = new int[DIMENSIONS][0];
+    private int[][] boxMax = new int[DIMENSIONS][0];
+    private int[] liveCount = new int[0];
+    private final BitSet dead = new BitSet();
+    private int deadCount = 0;
+    private final Map<Integer, Integer> positionById = new HashMap<>();
+
+    // Points added since the last rebuild
+    private final Map<Integer, int[]> pending = new LinkedHashMap<>();
+    private int rebuilds = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a character's stats and height
+     */
+    public void put(int characterId, Umamusume.Stats stats, int height) {
+        if (stats == null) {
+            throw new IllegalArgumentException("Stats cannot be null");
+        }
+        int[] point = {stats.getSpeed(), stats.getStamina(), stats.getPower(),
+                       stats.getGuts(), stats.getIntelligence(), height};
+        lock.writeLock().lock();
+        try {
+            Integer position = positionById.get(characterId);
+            if (position != null && !dead.get(position) && Arrays.equals(pointAt(position), point)) {
+                return;
+            }
+            tombstone(characterId);
+            pending.put(characterId, point);
+            rebuildIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int characterId) {
+        lock.writeLock().lock();
+        try {
+            pending.remove(characterId);
+            tombstone(characterId);
+            rebuildIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return IDs of the characters inside the query box, in no particular order
+     */
+    public int[] query(Query query) {
+        lock.readLock().lock();
+        try {
+            int[] out = new int[16];
+            int[] count = {0};
+            if (treeSize > 0) {
+                out = collect(query, 0, treeSize, 0, out, count);
+            }
+            for (Map.Entry<Integer, int[]> entry : pending.entrySet()) {
+                if (query.contains(entry.getValue())) {
+                    out = append(out, count, entry.getKey());
+                }
+            }
+            return Arrays.copyOf(out, count[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of characters inside the query box
+     */
+    public int count(Query query) {
+        lock.readLock().lock();
+        try {
+            int total = treeSize > 0 ? count(query, 0, treeSize, 0) : 0;
+            for (int[] point : pending.values()) {
+                if (query.contains(point)) {
+                    total++;
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Test one character against a query
+     * @return false if the character is not indexed
+     */
+    public boolean matches(int characterId, Query query) {
+        lock.readLock().lock();
+        try {
+            int[] point = pending.get(characterId);
+            if (point == null) {
+                Integer position = positionById.get(characterId);
+                if (position == null) {
+                    return false;
+                }
+                point = pointAt(position);
+            }
+            return query.contains(point);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int characterId) {
+        lock.readLock().lock();
+        try {
+            return pending.containsKey(characterId) || positionById.containsKey(characterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return treeSize - deadCount + pending.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pending.clear();
+            positionById.clear();
+            dead.clear();
+            deadCount = 0;
+            treeSize = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            return Map.of(
+                "characters", treeSize - deadCount + pending.size(),
+                "treeSize", treeSize,
+                "tombstones", deadCount,
+                "pending", pending.size(),
+                "rebuilds", rebuilds
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] collect(Query query, int lo, int hi, int depth, int[] out, int[] count) {
+        int node = (lo + hi) >>> 1;
+        if (liveCount[node] == 0 || disjoint(query, node)) {
+            return out;
+        }
+        if (inside(query, node)) {
+            // Whole subtree matches: copy its live IDs without further checks
+            for (int i = lo; i < hi; i++) {
+                if (!dead.get(i)) {
+                    out = append(out, count, treeIds[i]);
+                }
+            }
+            return out;
+        }
+        if (!dead.get(node) && query.contains(pointAt(node))) {
+            out = append(out, count, treeIds[node]);
+        }
+        int split = depth % DIMENSIONS;
+        int value = coords[split][node];
+        // Left holds values <= the split value, right values >= it
+        if (lo < node && query.min[split] <= value) {
+            out = collect(query, lo, node, depth + 1, out, count);
+        }
+        if (node + 1 < hi && query.max[split] >= value) {
+            out = collect(query, node + 1, hi, depth + 1, out, count);
+        }
+        return out;
+    }
+
+    private int count(Query query, int lo, int hi, int depth) {
+        int node = (lo + hi) >>> 1;
+        if (liveCount[node] == 0 || disjoint(query, node)) {
+            return 0;
+        }
+        if (inside(query, node)) {
+            return liveCount[node];
+        }
+        int total = !dead.get(node) && query.contains(pointAt(node)) ? 1 : 0;
+        int split = depth % DIMENSIONS;
+        int value = coords[split][node];
+        if (lo < node && query.min[split] <= value) {
+            total += count(query, lo, node, depth + 1);
+        }
+        if (node + 1 < hi && query.max[split] >= value) {
+            total += count(query, node + 1, hi, depth + 1);
+        }
+        return total;
+    }
+
+    private boolean disjoint(Query query, int node) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (boxMax[d][node] < query.min[d] || boxMin[d][node] > query.max[d]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inside(Query query, int node) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (boxMin[d][node] < query.min[d] || boxMax[d][node] > query.max[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] pointAt(int position) {
+        int[] point = new int[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            point[d] = coords[d][position];
+        }
+        return point;
+    }
+
+    private void tombstone(int characterId) {
+        Integer position = positionById.remove(characterId);
+        if (position == null || dead.get(position)) {
+            return;
+        }
+        dead.set(position);
+        deadCount++;
+        // Boxes stay as they are (still bounding); only the live counts on the path shrink
+        int lo = 0;
+        int hi = treeSize;
+        while (lo < hi) {
+            int node = (lo + hi) >>> 1;
+            liveCount[node]--;
+            if (position == node) {
+                break;
+            }
+            if (position < node) {
+                hi = node;
+            } else {
+                lo = node + 1;
+            }
+        }
+    }
+
+    private void rebuildIfNeeded() {
+        int live = treeSize - deadCount;
+        if (pending.size() + deadCount >= Math.max(MIN_REBUILD_THRESHOLD, live / 4)) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        int size = treeSize - deadCount + pending.size();
+        int[] ids = new int[size];
+        int[][] points = new int[DIMENSIONS][size];
+        int next = 0;
+        for (int i = 0; i < treeSize; i++) {
+            if (!dead.get(i)) {
+                ids[next] = treeIds[i];
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    points[d][next] = coords[d][i];
+                }
+                next++;
+            }
+        }
+        for (Map.Entry<Integer, int[]> entry : pending.entrySet()) {
+            ids[next] = entry.getKey();
+            for (int d = 0; d < DIMENSIONS; d++) {
+                points[d][next] = entry.getValue()[d];
+            }
+            next++;
+        }
+
+        treeIds = ids;
+        coords = points;
+        treeSize = size;
+        boxMin = new int[DIMENSIONS][size];
+        boxMax = new int[DIMENSIONS][size];
+        liveCount = new int[size];
+        if (size > 0) {
+            build(0, size, 0);
+        }
+        pending.clear();
+        dead.clear();
+        deadCount = 0;
+        positionById.clear();
+        for (int i = 0; i < size; i++) {
+            positionById.put(treeIds[i], i);
+        }
+        rebuilds++;
+    }
+
+    private void build(int lo, int hi, int depth) {
+        int node = (lo + hi) >>> 1;
+        select(lo, hi - 1, node, depth % DIMENSIONS);
+        if (lo < node) {
+            build(lo, node, depth + 1);
+        }
+        if (node + 1 < hi) {
+            build(node + 1, hi, depth + 1);
+        }
+        // Subtree box and count from the node and its children
+        liveCount[node] = hi - lo;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int min = coords[d][node];
+            int max = min;
+            if (lo < node) {
+                int left = (lo + node) >>> 1;
+                min = Math.min(min, boxMin[d][left]);
+                max = Math.max(max, boxMax[d][left]);
+            }
+            if (node + 1 < hi) {
+                int right = (node + 1 + hi) >>> 1;
+                min = Math.min(min, boxMin[d][right]);
+                max = Math.max(max, boxMax[d][right]);
+            }
+            boxMin[d][node] = min;
+            boxMax[d][node] = max;
+        }
+    }
+
+    /**
+     * Quickselect: place the k-th smallest value of dimension d in [lo, hi] at position k
+     */
+    private void select(int lo, int hi, int k, int d) {
+        int[] values = coords[d];
+        while (lo < hi) {
+            int pivot = values[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = treeIds[a];
+        treeIds[a] = treeIds[b];
+        treeIds[b] = id;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int value = coords[d][a];
+            coords[d][a] = coords[d][b];
+            coords[d][b] = value;
+        }
+    }
+
+    private static int[] append(int[] out, int[] count, int id) {
+        if (count[0] == out.length) {
+            out = Arrays.copyOf(out, Math.max(16, out.length * 2));
+        }
+        out[count[0]++] = id;
+        return out;
+    }
+}
@@ -0,0 +1,246 @@
+package com.atziluth.sephirah.chesed.searching;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from character trigrams to documents.
+ * Text is folded to lower-case letters and digits; every word is padded like "␣␣word␣"
+ * so prefixes and short words still produce trigrams. A trigram is packed into one long
+ * (three 16-bit chars), posting lists are growable int arrays of document slots, and a
+ * query only touches the posting lists of its own trigrams.
+ * Not thread-safe; {@link CharacterSearchIndex} guards access.
+ */
+public class TrigramIndex {
+    private static final char PAD = ' ';
+
+    /** Documents sharing trigrams with a query. */
+    public static final class Matches {
+        private final int[] docIds;
+        private final int[] matched;
+        private final int[] docTrigrams;
+        private final int queryTrigrams;
+
+        Matches(int[] docIds, int[] matched, int[] docTrigrams, int queryTrigrams) {
+            this.docIds = docIds;
+            this.matched = matched;
+            this.docTrigrams = docTrigrams;
+            this.queryTrigrams = queryTrigrams;
+        }
+
+        public int size() { return docIds.length; }
+        public int docId(int i) { return docIds[i]; }
+        /** Distinct query trigrams found in document i */
+        public int matched(int i) { return matched[i]; }
+        /** Distinct trigrams of document i */
+        public int docTrigrams(int i) { return docTrigrams[i]; }
+        public int queryTrigrams() { return queryTrigrams; }
+
+        /** Share of the query found in document i (0..1) */
+        public double coverage(int i) {
+            return queryTrigrams == 0 ? 0 : (double) matched[i] / queryTrigrams;
+        }
+
+        /** Jaccard similarity of query and document i (0..1) */
+        public double similarity(int i) {
+            int union = queryTrigrams + docTrigrams[i] - matched[i];
+            return union == 0 ? 0 : (double) matched[i] / union;
+        }
+    }
+
+    /** Growable list of document slots. */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, Integer> slotByDoc = new HashMap<>();
+    private int[] docBySlot = new int[64];
+    private long[][] trigramsBySlot = new long[64][];
+    private int[] freeSlots = new int[8];
+    private int freeCount = 0;
+    private int slotCount = 0;
+
+    /**
+     * Index a document, replacing any previous text for the same ID
+     */
+    public void put(int docId, CharSequence text) {
+        remove(docId);
+        long[] trigrams = trigrams(text);
+        if (trigrams.length == 0) {
+            return;
+        }
+        int slot = allocateSlot(docId);
+        trigramsBySlot[slot] = trigrams;
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).add(slot);
+        }
+    }
+
+    public void remove(int docId) {
+        Integer slot = slotByDoc.remove(docId);
+        if (slot == null) {
+            return;
+        }
+        for (long trigram : trigramsBySlot[slot]) {
+            Postings list = postings.get(trigram);
+            if (list != null) {
+                list.remove(slot);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        trigramsBySlot[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    public boolean contains(int docId) {
+        return slotByDoc.containsKey(docId);
+    }
+
+    public int size() {
+        return slotByDoc.size();
+    }
+
+    public int distinctTrigrams() {
+        return postings.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        slotByDoc.clear();
+        Arrays.fill(trigramsBySlot, null);
+        slotCount = 0;
+        freeCount = 0;
+    }
+
+    /**
+     * Count, per document, how many distinct query trigrams it contains
+     */
+    public Matches match(CharSequence query) {
+        long[] queryTrigrams = trigrams(query);
+        int[] counts = new int[slotCount];
+        int hits = 0;
+        for (long trigram : queryTrigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                if (counts[list.slots[i]]++ == 0) {
+                    hits++;
+                }
+            }
+        }
+
+        int[] docIds = new int[hits];
+        int[] matched = new int[hits];
+        int[] sizes = new int[hits];
+        int next = 0;
+        for (int slot = 0; slot < slotCount && next < hits; slot++) {
+            if (counts[slot] > 0) {
+                docIds[next] = docBySlot[slot];
+                matched[next] = counts[slot];
+                sizes[next] = trigramsBySlot[slot].length;
+                next++;
+            }
+        }
+        return new Matches(docIds, matched, sizes, queryTrigrams.length);
+    }
+
+    /**
+     * Distinct trigrams of a text, sorted
+     */
+    static long[] trigrams(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return new long[0];
+        }
+        long[] out = new long[text.length() + 8];
+        int count = 0;
+        // Sliding window over the padded, folded word stream
+        char a = PAD;
+        char b = PAD;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? fold(text.charAt(i)) : PAD;
+            if (c == PAD) {
+                if (!inWord) {
+                    continue;
+                }
+                // Close the word with one trailing pad, then restart padding
+                if (count == out.length) {
+                    out = Arrays.copyOf(out, count * 2);
+                }
+                out[count++] = pack(a, b, PAD);
+                a = PAD;
+                b = PAD;
+                inWord = false;
+                continue;
+            }
+            if (count == out.length) {
+                out = Arrays.copyOf(out, count * 2);
+            }
+            out[count++] = pack(a, b, c);
+            a = b;
+            b = c;
+            inWord = true;
+        }
+        Arrays.sort(out, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) {
+                out[distinct++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    /**
+     * Lower-case letters and digits; everything else separates words
+     */
+    private static char fold(char c) {
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : PAD;
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private int allocateSlot(int docId) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == docBySlot.length) {
+                docBySlot = Arrays.copyOf(docBySlot, slotCount * 2);
+                trigramsBySlot = Arrays.copyOf(trigramsBySlot, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        docBySlot[slot] = docId;
+        slotByDoc.put(docId, slot);
+        return slot;
+    }
+}
@@ -114,16 +114,24 @@ public class UmamusumeSearcher {
      */
     public Umamusume hashSearch(Map<String, Umamusume> map, String name) {
         System.out.println("🗺️  Hash Map Search - O(1) average");
-        return map.get(name.toLowerCase());
+        Umamusume found = map.get(NameNormalizer.fold(name));
+        return found != null ? found : map.get(NameNormalizer.looseKey(name));
     }
     
     /**
      * Build search index for faster lookups.
+     * Keys are the folded and romanized forms of both names (see {@link NameNormalizer}).
      */
     public Map<String, Umamusume> buildSearchIndex(List<Umamusume> list) {
         Map<String, Umamusume> index = new HashMap<>();
         for (Umamusume uma : list) {
-            index.put(uma.getName().toLowerCase(), uma);
+            NameNormalizer.SearchKeys keys = NameNormalizer.SearchKeys.of(uma.getName(), uma.getJapaneseName());
+            for (String key : new String[] {keys.getEnglish(), keys.getJapanese(),
+                                             keys.getLooseEnglish(), keys.getLooseJapanese()}) {
+                if (!key.isEmpty()) {
+                    index.putIfAbsent(key, uma);
+                }
+            }
         }
         return index;
     }
@@ -0,0 +1,195 @@
+package com.atziluth.sephirah.chesed.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the first {@code k} elements in the order of a comparator without sorting the rest.
+ * <p>
+ * A bounded binary heap holds the retained elements with the one that would sort last at
+ * the root, so each offer is one comparison against the root and at most O(log k) sift
+ * steps: O(n log k) for n elements instead of the O(n log n) of a full sort.
+ * Ties keep their offer order, so {@link #toList()} equals sorting stably and taking the
+ * first {@code k}. Selectors built over separate chunks can be combined with {@link #merge},
+ * which {@link #parallelTop} uses to split large lists.
+ * Not thread-safe; use one selector per thread and merge.
+ *
+ * @param <T> element type
+ */
+public class TopKSelector<T> {
+    /** Below this size a parallel selection costs more than it saves */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final Object[] items;
+    /** Offer position of each heap entry, the tie-breaker that keeps selection stable */
+    private final long[] sequence;
+    private int size;
+    private long offered;
+
+    /**
+     * @param k          how many elements to keep
+     * @param comparator ranking, best first (e.g. {@link Comparators#byTotalStats()})
+     */
+    public TopKSelector(int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative: " + k);
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator cannot be null");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        this.items = new Object[k];
+        this.sequence = new long[k];
+    }
+
+    /**
+     * @return true if the element is among the best {@code k} offered so far
+     */
+    public boolean offer(T element) {
+        return offer(element, offered++);
+    }
+
+    public TopKSelector<T> offerAll(Iterable<? extends T> elements) {
+        for (T element : elements) {
+            offer(element);
+        }
+        return this;
+    }
+
+    /**
+     * Fold another selector's retained elements into this one. Ties between the two are
+     * ordered by their offer positions, so merge chunks that used disjoint positions
+     * (as {@link #parallelTop} does) for a stable result.
+     */
+    @SuppressWarnings("unchecked")
+    public TopKSelector<T> merge(TopKSelector<? extends T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer((T) other.items[i], other.sequence[i]);
+        }
+        offered = Math.max(offered, other.offered);
+        return this;
+    }
+
+    /**
+     * @return the retained elements, best first
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareEntries(a, b));
+        List<T> result = new ArrayList<>(size);
+        for (Integer i : order) {
+            result.add((T) items[i]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return k;
+    }
+
+    /**
+     * The first {@code k} elements of {@code elements} in comparator order
+     */
+    public static <T> List<T> top(Iterable<? extends T> elements, int k, Comparator<? super T> comparator) {
+        return new TopKSelector<T>(k, comparator).offerAll(elements).toList();
+    }
+
+    /**
+     * Like {@link #top}, but large lists are split across the common fork/join pool and the
+     * partial heaps merged. Comparators must be safe to call from several threads.
+     */
+    public static <T> List<T> parallelTop(List<? extends T> elements, int k, Comparator<? super T> comparator) {
+        if (elements.size() < PARALLEL_THRESHOLD) {
+            return top(elements, k, comparator);
+        }
+        List<? extends T> source = elements instanceof RandomAccess ? elements : new ArrayList<>(elements);
+        TopKSelector<T> selector = IntStream.range(0, source.size()).parallel().collect(
+            () -> new TopKSelector<T>(k, comparator),
+            (partial, i) -> partial.offer(source.get(i), i),
+            TopKSelector::merge);
+        return selector.toList();
+    }
+
+    private boolean offer(T element, long position) {
+        if (k == 0) {
+            return false;
+        }
+        if (size < k) {
+            items[size] = element;
+            sequence[size] = position;
+            siftUp(size++);
+            return true;
+        }
+        // Root is the worst retained element; anything not better than it is dropped
+        if (compare(element, position, 0) >= 0) {
+            return false;
+        }
+        items[0] = element;
+        sequence[0] = position;
+        siftDown(0);
+        return true;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compareEntries(index, parent) <= 0) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && compareEntries(child + 1, child) > 0) {
+                child++;
+            }
+            if (compareEntries(child, index) <= 0) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T element, long position, int entry) {
+        int cmp = comparator.compare(element, (T) items[entry]);
+        return cmp != 0 ? cmp : Long.compare(position, sequence[entry]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compareEntries(int a, int b) {
+        return compare((T) items[a], sequence[a], b);
+    }
+
+    private void swap(int a, int b) {
+        Object item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        long position = sequence[a];
+        sequence[a] = sequence[b];
+        sequence[b] = position;
+    }
+}
@@ -3,6 +3,8 @@ package com.atziluth.sephirah.chesed.sorting;
 
 import com.atziluth.sephirah.chesed.model.Umamusume;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,6 +15,11 @@ import org.slf4j.LoggerFactory;
 public class UmamusumeSorter {
     private static final Logger logger = LoggerFactory.getLogger(UmamusumeSorter.class);
     
+    /** Merge sort ranges at or below this size are sorted without forking */
+    private static final int SEQUENTIAL_CUTOFF = 4096;
+    /** Merge sort ranges at or below this size are insertion sorted */
+    private static final int INSERTION_CUTOFF = 16;
+    
     /**
      * Bubble Sort - O(n²) time, O(1) space
      * Simple but inefficient. Good for small datasets.
@@ -80,35 +87,187 @@ public class UmamusumeSorter {
     /**
      * Merge Sort - O(n log n) time, O(n) space
      * Divide and conquer algorithm. Stable sort.
+     * Large lists are sorted in parallel on the common fork/join pool.
      */
     public List<Umamusume> mergeSort(List<Umamusume> list, Comparator<Umamusume> comparator) {
         logger.info("🔄 Merge Sort - O(n log n), stable");
-        if (list.size() <= 1) return new ArrayList<>(list);
+        return parallelMergeSort(list, comparator);
+    }
+    
+    /**
+     * Stable fork/join merge sort for any element type.
+     * Sorts an array copy against one scratch array of the same size, alternating which
+     * one holds the sorted runs at each level, so the whole sort allocates O(n). Halves
+     * and large merges are split into fork/join tasks down to a sequential cutoff.
+     */
+    public static <T> List<T> parallelMergeSort(List<T> list, Comparator<? super T> comparator) {
+        Object[] sorted = list.toArray();
+        if (sorted.length > 1) {
+            Object[] scratch = sorted.clone();
+            MergeSortTask<T> task = new MergeSortTask<>(scratch, sorted, 0, sorted.length, comparator);
+            if (sorted.length <= SEQUENTIAL_CUTOFF) {
+                task.compute();
+            } else {
+                ForkJoinPool.commonPool().invoke(task);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) new ArrayList<>(Arrays.asList(sorted));
+        return result;
+    }
+    
+    /**
+     * Sorts [lo, hi) into dst; src holds the same elements there and is used as scratch.
+     */
+    private static final class MergeSortTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] src;
+        private final Object[] dst;
+        private final int lo;
+        private final int hi;
+        private final Comparator<? super T> comparator;
         
-        int mid = list.size() / 2;
-        List<Umamusume> left = mergeSort(list.subList(0, mid), comparator);
-        List<Umamusume> right = mergeSort(list.subList(mid, list.size()), comparator);
+        MergeSortTask(Object[] src, Object[] dst, int lo, int hi, Comparator<? super T> comparator) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+            this.comparator = comparator;
+        }
         
-        return merge(left, right, comparator);
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_CUTOFF) {
+                sortSequential(src, dst, lo, hi, comparator);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            // Sort both halves into src, then merge them back into dst
+            invokeAll(new MergeSortTask<>(dst, src, lo, mid, comparator),
+                      new MergeSortTask<>(dst, src, mid, hi, comparator));
+            new MergeTask<>(src, lo, mid, mid, hi, dst, lo, comparator).compute();
+        }
     }
     
-    private List<Umamusume> merge(List<Umamusume> left, List<Umamusume> right, 
-                                 Comparator<Umamusume> comparator) {
-        List<Umamusume> merged = new ArrayList<>();
-        int i = 0, j = 0;
+    /**
+     * Stable merge of the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst from dstLo.
+     * Large merges split at the middle of the longer run and a binary search in the other.
+     */
+    private static final class MergeTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] src;
+        private final int lo1, hi1, lo2, hi2;
+        private final Object[] dst;
+        private final int dstLo;
+        private final Comparator<? super T> comparator;
+        
+        MergeTask(Object[] src, int lo1, int hi1, int lo2, int hi2,
+                  Object[] dst, int dstLo, Comparator<? super T> comparator) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.dstLo = dstLo;
+            this.comparator = comparator;
+        }
         
-        while (i < left.size() && j < right.size()) {
-            if (comparator.compare(left.get(i), right.get(j)) <= 0) {
-                merged.add(left.get(i++));
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= SEQUENTIAL_CUTOFF) {
+                merge(src, lo1, hi1, lo2, hi2, dst, dstLo, comparator);
+                return;
+            }
+            int split1;
+            int split2;
+            if (n1 >= n2) {
+                // Right elements equal to the pivot stay after it
+                split1 = (lo1 + hi1) >>> 1;
+                split2 = lowerBound(src, lo2, hi2, (T) src[split1], comparator);
             } else {
-                merged.add(right.get(j++));
+                // Left elements equal to the pivot stay before it
+                split2 = (lo2 + hi2) >>> 1;
+                split1 = upperBound(src, lo1, hi1, (T) src[split2], comparator);
+            }
+            int dstSplit = dstLo + (split1 - lo1) + (split2 - lo2);
+            invokeAll(new MergeTask<>(src, lo1, split1, lo2, split2, dst, dstLo, comparator),
+                      new MergeTask<>(src, split1, hi1, split2, hi2, dst, dstSplit, comparator));
+        }
+    }
+    
+    /**
+     * Top-down merge sort of [lo, hi) into dst, with src as scratch holding the same elements
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void sortSequential(Object[] src, Object[] dst, int lo, int hi,
+                                           Comparator<? super T> comparator) {
+        if (hi - lo <= INSERTION_CUTOFF) {
+            for (int i = lo + 1; i < hi; i++) {
+                Object item = dst[i];
+                int j = i - 1;
+                while (j >= lo && comparator.compare((T) dst[j], (T) item) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = item;
             }
+            return;
         }
+        int mid = (lo + hi) >>> 1;
+        sortSequential(dst, src, lo, mid, comparator);
+        sortSequential(dst, src, mid, hi, comparator);
+        merge(src, lo, mid, mid, hi, dst, lo, comparator);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> void merge(Object[] src, int lo1, int hi1, int lo2, int hi2,
+                                  Object[] dst, int dstLo, Comparator<? super T> comparator) {
+        int i = lo1, j = lo2, k = dstLo;
         
-        while (i < left.size()) merged.add(left.get(i++));
-        while (j < right.size()) merged.add(right.get(j++));
+        while (i < hi1 && j < hi2) {
+            if (comparator.compare((T) src[i], (T) src[j]) <= 0) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
         
-        return merged;
+        while (i < hi1) dst[k++] = src[i++];
+        while (j < hi2) dst[k++] = src[j++];
+    }
+    
+    /** First index in [lo, hi) whose element is not less than key */
+    @SuppressWarnings("unchecked")
+    private static <T> int lowerBound(Object[] a, int lo, int hi, T key, Comparator<? super T> comparator) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare((T) a[mid], key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /** First index in [lo, hi) whose element is greater than key */
+    @SuppressWarnings("unchecked")
+    private static <T> int upperBound(Object[] a, int lo, int hi, T key, Comparator<? super T> comparator) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare((T) a[mid], key) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
     }
     
     /**
@@ -147,6 +306,15 @@ public class UmamusumeSorter {
         return i + 1;
     }
     
+    /**
+     * Top-K Selection - O(n log k) time, O(k) space
+     * Bounded heap instead of a full sort when only the first k are needed.
+     */
+    public List<Umamusume> topK(List<Umamusume> list, int k, Comparator<Umamusume> comparator) {
+        logger.info("🏆 Top-K Heap - O(n log k), k = " + k);
+        return TopKSelector.parallelTop(list, k, comparator);
+    }
+    
     /**
      * Counting Sort for Rarity - O(n + k) where k = number of rarities
      * Efficient when range is limited.
@@ -199,6 +367,7 @@ public class UmamusumeSorter {
         algorithms.put("Merge Sort", () -> mergeSort(data, comparator));
         algorithms.put("Quick Sort", () -> quickSort(data, comparator));
         algorithms.put("Counting Sort (Rarity)", () -> countingSortByRarity(data));
+        algorithms.put("Top-K Heap (k = 10)", () -> topK(data, 10, comparator));
         
         for (Map.Entry<String, Runnable> entry : algorithms.entrySet()) {
             long start = System.nanoTime();
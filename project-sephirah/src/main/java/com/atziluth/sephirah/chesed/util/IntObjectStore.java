@@ -0,0 +1,200 @@
+package com.atziluth.sephirah.chesed.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent map from primitive int keys to objects, backed by a dense array.
+ * Game IDs are small and mostly contiguous (1001-1400), so a key maps straight to
+ * an array slot: no boxing, no hashing, and lookups allocate nothing.
+ * Reads are lock-free; writes are serialized and publish a larger table when a key
+ * falls outside the current range.
+ *
+ * @param <V> value type
+ */
+public class IntObjectStore<V> {
+    /** Largest key range a store will cover before rejecting a key as too sparse. */
+    public static final int MAX_SPAN = 1 << 22;
+    private static final int MIN_CAPACITY = 64;
+
+    /** Callback for {@link #forEach}. */
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final class Table<V> {
+        final int base;
+        final AtomicReferenceArray<V> values;
+
+        Table(int base, int capacity) {
+            this.base = base;
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        boolean covers(int key) {
+            long index = (long) key - base;
+            return index >= 0 && index < values.length();
+        }
+    }
+
+    private volatile Table<V> table = new Table<>(0, 0);
+    private final Object writeLock = new Object();
+    private volatile int size = 0;
+
+    /**
+     * Lock-free lookup.
+     * @return the value for key, or null if absent
+     */
+    public V get(int key) {
+        Table<V> t = table;
+        long index = (long) key - t.base;
+        if (index < 0 || index >= t.values.length()) {
+            return null;
+        }
+        return t.values.get((int) index);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Store a value, growing the backing array if the key is out of range.
+     * @return the previous value, or null
+     */
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        synchronized (writeLock) {
+            Table<V> t = ensureCovers(key);
+            V previous = t.values.getAndSet(key - t.base, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Store a value only if the key has none.
+     * @return the value already present (nothing stored), or null if value was stored
+     */
+    public V putIfAbsent(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        synchronized (writeLock) {
+            Table<V> t = ensureCovers(key);
+            int index = key - t.base;
+            V present = t.values.get(index);
+            if (present != null) {
+                return present;
+            }
+            t.values.set(index, value);
+            size++;
+            return null;
+        }
+    }
+
+    /**
+     * Remove the value for key.
+     * @return the removed value, or null
+     */
+    public V remove(int key) {
+        synchronized (writeLock) {
+            Table<V> t = table;
+            if (!t.covers(key)) {
+                return null;
+            }
+            V previous = t.values.getAndSet(key - t.base, null);
+            if (previous != null) {
+                size--;
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Remove the value for key only if it is still the expected instance.
+     */
+    public boolean remove(int key, V expected) {
+        synchronized (writeLock) {
+            Table<V> t = table;
+            if (!t.covers(key) || !t.values.compareAndSet(key - t.base, expected, null)) {
+                return false;
+            }
+            size--;
+            return true;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            table = new Table<>(0, 0);
+            size = 0;
+        }
+    }
+
+    /**
+     * Visit every present entry in ascending key order.
+     * Iterates a consistent table but may miss writes made during the walk.
+     */
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        Table<V> t = table;
+        for (int i = 0; i < t.values.length(); i++) {
+            V value = t.values.get(i);
+            if (value != null) {
+                consumer.accept(t.base + i, value);
+            }
+        }
+    }
+
+    private Table<V> ensureCovers(int key) {
+        Table<V> current = table;
+        if (current.covers(key)) {
+            return current;
+        }
+
+        long low;
+        long high;
+        if (size == 0) {
+            low = key;
+            high = (long) key + MIN_CAPACITY;
+        } else {
+            long currentEnd = (long) current.base + current.values.length();
+            low = Math.min(current.base, key);
+            high = Math.max(currentEnd, (long) key + 1);
+            // Grow geometrically on the side that overflowed
+            long span = Math.max(high - low, 2L * current.values.length());
+            if (key < current.base) {
+                low = high - span;
+            } else {
+                high = low + span;
+            }
+        }
+
+        low = Math.max(low, Integer.MIN_VALUE);
+        high = Math.min(high, (long) Integer.MAX_VALUE + 1);
+        if (high - low > MAX_SPAN) {
+            throw new IllegalArgumentException("Key " + key + " is too far from existing keys for a dense store");
+        }
+
+        Table<V> grown = new Table<>((int) low, (int) (high - low));
+        if (size > 0) {
+            for (int i = 0; i < current.values.length(); i++) {
+                V value = current.values.get(i);
+                if (value != null) {
+                    grown.values.set(current.base + i - grown.base, value);
+                }
+            }
+        }
+        table = grown;
+        return grown;
+    }
+}